@@ -0,0 +1,294 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.jevis.api.JEVisException;
+import org.jevis.commons.json.JsonObject;
+import org.jevis.structurecreator.InMemoryDataSource;
+import org.jevis.structurecreator.JSON2JEVisStructureCreator;
+import org.jevis.structurecreator.JsonStructureReader;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the creator against an InMemoryDataSource.
+ *
+ * Every benchmark processes one file generated by the StructureGenerator,
+ * the size of the tree, the share of $(REF) values, the latency of every
+ * database call and the parallelism of the creator are parameters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StructureCreatorBenchmark {
+
+    // Keep a reference, the LogManager only holds loggers weakly
+    private static final Logger CREATOR_LOG = Logger.getLogger("org.jevis.structurecreator");
+
+    /**
+     * The generated structure files
+     */
+    @State(Scope.Benchmark)
+    public static class Structure {
+
+        @Param({"3"})
+        public int depth;
+        @Param({"8"})
+        public int fanOut;
+        @Param({"5"})
+        public int attributes;
+        @Param({"0.1"})
+        public double refDensity;
+        @Param({"0"})
+        public long latencyMicros;
+        @Param({"1"})
+        public int parallelism;
+        @Param({"50"})
+        public int samplesPerAttribute;
+
+        StructureGenerator generator;
+        File structureFile;
+        File deleteFile;
+        File pruneFile;
+
+        @Setup(Level.Trial)
+        public void generate() throws IOException {
+            CREATOR_LOG.setLevel(java.util.logging.Level.WARNING);
+            generator = new StructureGenerator(depth, fanOut, attributes, refDensity);
+            structureFile = File.createTempFile("structure", ".json");
+            deleteFile = File.createTempFile("delete", ".json");
+            pruneFile = File.createTempFile("prune", ".json");
+
+            Writer out = Files.newBufferedWriter(structureFile.toPath(), StandardCharsets.UTF_8);
+            try {
+                generator.writeStructure(out);
+            } finally {
+                out.close();
+            }
+            out = Files.newBufferedWriter(deleteFile.toPath(), StandardCharsets.UTF_8);
+            try {
+                generator.writeOperation(out, -3);
+            } finally {
+                out.close();
+            }
+            out = Files.newBufferedWriter(pruneFile.toPath(), StandardCharsets.UTF_8);
+            try {
+                generator.writeOperation(out, -6);
+            } finally {
+                out.close();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() {
+            structureFile.delete();
+            deleteFile.delete();
+            pruneFile.delete();
+        }
+
+        /**
+         * @return a creator connected to a new, empty InMemoryDataSource
+         */
+        Server connect() {
+            InMemoryDataSource ds = new InMemoryDataSource(StructureGenerator.ROOT_NAME, generator.getAttributeNames());
+            ds.setLatency(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+            JSON2JEVisStructureCreator creator = new JSON2JEVisStructureCreator();
+            creator.setParallelism(parallelism);
+            creator.setPoolSize(parallelism);
+            if (!creator.connectToJEVis(ds)) {
+                throw new IllegalStateException("Could not connect to the InMemoryDataSource");
+            }
+            return new Server(ds, creator);
+        }
+    }
+
+    static class Server {
+
+        final InMemoryDataSource ds;
+        final JSON2JEVisStructureCreator creator;
+
+        Server(InMemoryDataSource ds, JSON2JEVisStructureCreator creator) {
+            this.ds = ds;
+            this.creator = creator;
+        }
+    }
+
+    /**
+     * An empty server for every invocation
+     */
+    @State(Scope.Thread)
+    public static class Empty {
+
+        Server server;
+
+        @Setup(Level.Invocation)
+        public void setup(Structure structure) {
+            server = structure.connect();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            server.creator.disconnect();
+        }
+    }
+
+    /**
+     * A server holding the structure, created once per trial
+     */
+    @State(Scope.Thread)
+    public static class Existing {
+
+        Server server;
+
+        @Setup(Level.Trial)
+        public void setup(Structure structure) throws JEVisException, IOException {
+            server = structure.connect();
+            server.creator.processJSONFile(structure.structureFile.getPath());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            server.creator.disconnect();
+        }
+    }
+
+    /**
+     * A server holding the structure with old samples, created for every
+     * invocation
+     */
+    @State(Scope.Thread)
+    public static class Populated {
+
+        Server server;
+
+        @Setup(Level.Invocation)
+        public void setup(Structure structure) throws JEVisException, IOException {
+            server = structure.connect();
+            server.creator.processJSONFile(structure.structureFile.getPath());
+            server.ds.seedSamples(structure.samplesPerAttribute, TimeUnit.MINUTES.toMillis(15));
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            server.creator.disconnect();
+        }
+    }
+
+    /**
+     * Database calls of the benchmarks re-applying and pruning, reported by
+     * JMH next to the time as the sum per iteration together with the
+     * number of invocations
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class DatabaseCalls {
+
+        public long calls;
+        public long invocations;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            calls = 0;
+            invocations = 0;
+        }
+
+        /**
+         * @return average database calls of one invocation
+         */
+        public double callsPerInvocation() {
+            return invocations == 0 ? 0 : (double) calls / invocations;
+        }
+
+        void record(long count) {
+            calls += count;
+            invocations++;
+        }
+    }
+
+    @Benchmark
+    public int parse(Structure structure) throws IOException, JEVisException {
+        final int[] nodes = {0};
+        JsonStructureReader reader = new JsonStructureReader(Files.newBufferedReader(
+                structure.structureFile.toPath(), StandardCharsets.UTF_8));
+        try {
+            reader.readRoot();
+            reader.readChildren(new JsonStructureReader.NodeHandler<JsonObject>() {
+                @Override
+                public JsonObject enter(JsonObject node, JsonObject parent) {
+                    nodes[0]++;
+                    return node;
+                }
+
+                @Override
+                public void leave(JsonObject node, JsonObject context) {
+                }
+            }, null);
+        } finally {
+            reader.close();
+        }
+        return nodes[0];
+    }
+
+    @Benchmark
+    public int createFromScratch(Structure structure, Empty empty) throws JEVisException, IOException {
+        empty.server.creator.processJSONFile(structure.structureFile.getPath());
+        return empty.server.ds.size();
+    }
+
+    @Benchmark
+    public void reapplyOnExisting(Structure structure, Existing existing, DatabaseCalls calls) throws JEVisException, IOException {
+        long before = existing.server.ds.getCalls();
+        existing.server.creator.processJSONFile(structure.structureFile.getPath());
+        calls.record(existing.server.ds.getCalls() - before);
+    }
+
+    @Benchmark
+    public int deleteRecursive(Structure structure, Populated populated) throws JEVisException, IOException {
+        populated.server.creator.processJSONFile(structure.deleteFile.getPath());
+        return populated.server.ds.size();
+    }
+
+    @Benchmark
+    public void pruneOldSamples(Structure structure, Populated populated, DatabaseCalls calls) throws JEVisException, IOException {
+        long before = populated.server.ds.getCalls();
+        populated.server.creator.processJSONFile(structure.pruneFile.getPath());
+        calls.record(populated.server.ds.getCalls() - before);
+    }
+}
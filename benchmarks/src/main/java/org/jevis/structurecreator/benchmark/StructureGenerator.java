@@ -0,0 +1,195 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator.benchmark;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jevis.structurecreator.InMemoryDataSource;
+
+/**
+ * Generates synthetic structure files for the creator.
+ *
+ * The tree below the root has the given depth and fan-out, every node has
+ * the same number of attributes. Every node defines a reference ID and a
+ * share of the attribute values refers to a node written before it with
+ * $(REF). The same seed always generates the same file.
+ */
+public class StructureGenerator {
+
+    public static final String ROOT_NAME = "Benchmark Root";
+    public static final String NODE_CLASS = "Benchmark Node";
+
+    private final int _depth;
+    private final int _fanOut;
+    private final int _attributes;
+    private final double _refDensity;
+    private long _seed = 42;
+
+    /**
+     * @param depth levels below the root
+     * @param fanOut children of every node
+     * @param attributes attributes of every node
+     * @param refDensity share of attribute values being a $(REF), 0 to 1
+     */
+    public StructureGenerator(int depth, int fanOut, int attributes, double refDensity) {
+        this._depth = depth;
+        this._fanOut = fanOut;
+        this._attributes = attributes;
+        this._refDensity = refDensity;
+    }
+
+    public void setSeed(long seed) {
+        this._seed = seed;
+    }
+
+    /**
+     * @return names of the attributes written for every node
+     */
+    public List<String> getAttributeNames() {
+        List<String> names = new ArrayList<String>(_attributes);
+        for (int i = 0; i < _attributes; i++) {
+            names.add("Attribute " + i);
+        }
+        return names;
+    }
+
+    /**
+     * @return number of nodes below the root
+     */
+    public long getNodeCount() {
+        long count = 0;
+        long level = 1;
+        for (int i = 0; i < _depth; i++) {
+            level *= _fanOut;
+            count += level;
+        }
+        return count;
+    }
+
+    /**
+     * Write the structure creating the whole tree
+     */
+    public void writeStructure(Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.setIndent("  ");
+        Random random = new Random(_seed);
+        long[] refs = {0};
+        beginRoot(writer);
+        for (int i = 0; i < _fanOut; i++) {
+            writeNode(writer, Integer.toString(i), 1, random, refs);
+        }
+        endRoot(writer);
+        writer.flush();
+    }
+
+    /**
+     * Write a structure running an operation on every node below the root,
+     * e.g. -3 to delete the tree or -6 to delete its old samples
+     */
+    public void writeOperation(Writer out, long operation) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.setIndent("  ");
+        beginRoot(writer);
+        for (int i = 0; i < _fanOut; i++) {
+            writer.beginObject();
+            writer.name("id").value(operation);
+            writer.name("name").value(nodeName(Integer.toString(i)));
+            writer.name("jevisclass").value(NODE_CLASS);
+            writer.endObject();
+        }
+        endRoot(writer);
+        writer.flush();
+    }
+
+    private void beginRoot(JsonWriter writer) throws IOException {
+        writer.beginObject();
+        writer.name("id").value(InMemoryDataSource.ROOT_ID);
+        writer.name("name").value(ROOT_NAME);
+        writer.name("jevisclass").value(InMemoryDataSource.ROOT_CLASS);
+        writer.name("children").beginArray();
+    }
+
+    private void endRoot(JsonWriter writer) throws IOException {
+        writer.endArray();
+        writer.endObject();
+    }
+
+    private void writeNode(JsonWriter writer, String path, int level, Random random, long[] refs) throws IOException {
+        long ref = ++refs[0];
+        writer.beginObject();
+        writer.name("id").value(ref);
+        writer.name("name").value(nodeName(path));
+        writer.name("jevisclass").value(NODE_CLASS);
+        writer.name("attributes").beginArray();
+        for (int i = 0; i < _attributes; i++) {
+            String value;
+            if (ref > 1 && random.nextDouble() < _refDensity) {
+                // Refer to any node written before
+                value = "$(REF)" + (1 + (long) (random.nextDouble() * (ref - 1)));
+            } else {
+                value = path + "-" + i;
+            }
+            writer.beginObject();
+            writer.name("name").value("Attribute " + i);
+            writer.name("lastvalue").value(value);
+            writer.endObject();
+        }
+        writer.endArray();
+        if (level < _depth) {
+            writer.name("children").beginArray();
+            for (int i = 0; i < _fanOut; i++) {
+                writeNode(writer, path + "." + i, level + 1, random, refs);
+            }
+            writer.endArray();
+        }
+        writer.endObject();
+    }
+
+    private static String nodeName(String path) {
+        return "Node " + path;
+    }
+
+    /**
+     * Write a structure file, e.g. to run it against a test server
+     *
+     * @param args file depth fan-out attributes ref-density
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 5) {
+            System.out.println("Usage: StructureGenerator <file> <depth> <fan-out> <attributes> <ref-density>");
+            System.exit(1);
+        }
+        StructureGenerator generator = new StructureGenerator(Integer.parseInt(args[1]),
+                Integer.parseInt(args[2]), Integer.parseInt(args[3]), Double.parseDouble(args[4]));
+        Writer out = Files.newBufferedWriter(Paths.get(args[0]), StandardCharsets.UTF_8);
+        try {
+            generator.writeStructure(out);
+        } finally {
+            out.close();
+        }
+        System.out.println(String.format("Wrote %d nodes to %s", generator.getNodeCount(), args[0]));
+    }
+}
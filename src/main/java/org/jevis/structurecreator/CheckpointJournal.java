@@ -0,0 +1,234 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only journal of the nodes of a JSON-file which were processed
+ * completely, so an interrupted run can be resumed.
+ *
+ * Every line holds the operation, the ID of the resulting JEVisObject (0 for
+ * none) and the position of the node in the file. The journal starts with
+ * the size and modification time of the JSON-file and is only resumed if
+ * the file did not change. A line torn by a crash is cut off before the
+ * journal is appended to.
+ *
+ * Completed nodes are collected and only written by commit, once their
+ * samples were committed, so the journal is not flushed for every node.
+ */
+public class CheckpointJournal implements Closeable {
+
+    public static final String SUFFIX = ".journal";
+    /**
+     * Number of completed nodes after which a batch should be committed
+     */
+    public static final int BATCH_SIZE = 1000;
+    private static final String HEADER = "# JSON2JEVisStructureCreator journal ";
+    private static final char SEPARATOR = '\t';
+
+    private final File _file;
+    // position + op -> object ID
+    private final Map<String, Long> _done = new HashMap<String, Long>();
+    // reference ID -> object ID
+    private final Map<Long, Long> _references = new HashMap<Long, Long>();
+    // lines of completed nodes not committed yet
+    private List<String> _completed = new ArrayList<String>();
+    private Writer _out;
+
+    private CheckpointJournal(File file) {
+        this._file = file;
+    }
+
+    /**
+     * Open the journal of a JSON-file
+     *
+     * @param jsonFile the JSON-file to process
+     * @param dir directory to keep the journal in, null for the directory of
+     * the JSON-file
+     * @param resume load the entries of an existing journal, otherwise it is
+     * started over
+     */
+    public static CheckpointJournal open(File jsonFile, File dir, boolean resume) throws IOException {
+        CheckpointJournal journal = new CheckpointJournal(dir == null
+                ? new File(jsonFile.getPath() + SUFFIX) : new File(dir, jsonFile.getName() + SUFFIX));
+        String header = HEADER + jsonFile.length() + " " + jsonFile.lastModified();
+        boolean append = resume && journal._file.exists() && journal.load(header);
+        journal._out = new OutputStreamWriter(new FileOutputStream(journal._file, append), StandardCharsets.UTF_8);
+        if (!append) {
+            journal._out.write(header + "\n");
+            journal._out.flush();
+        }
+        return journal;
+    }
+
+    private boolean load(String header) throws IOException {
+        truncateTornLine();
+        BufferedReader in = Files.newBufferedReader(_file.toPath(), StandardCharsets.UTF_8);
+        try {
+            if (!header.equals(in.readLine())) {
+                Logger.getLogger(CheckpointJournal.class.getName()).log(Level.WARNING,
+                        "The JSON-file changed since " + _file + " was written, starting over");
+                return false;
+            }
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split(String.valueOf(SEPARATOR), 3);
+                if (fields.length < 3) {
+                    continue;
+                }
+                try {
+                    long op = Long.parseLong(fields[0]);
+                    long id = Long.parseLong(fields[1]);
+                    _done.put(key(fields[2], op), id);
+                    if (op > 0 && id > 0) {
+                        _references.put(op, id);
+                    }
+                } catch (NumberFormatException ex) {
+                    Logger.getLogger(CheckpointJournal.class.getName()).log(Level.WARNING,
+                            "Ignoring invalid line in " + _file + ": " + line);
+                }
+            }
+        } finally {
+            in.close();
+        }
+        Logger.getLogger(CheckpointJournal.class.getName()).log(Level.INFO,
+                "Resuming after " + _done.size() + " completed nodes from " + _file);
+        return true;
+    }
+
+    /**
+     * Cut off everything after the last line break, a line written only
+     * partly by a crash would otherwise be continued by the next entry
+     */
+    private void truncateTornLine() throws IOException {
+        RandomAccessFile file = new RandomAccessFile(_file, "rw");
+        try {
+            byte[] buffer = new byte[4096];
+            long end = file.length();
+            long keep = 0;
+            while (end > 0 && keep == 0) {
+                int length = (int) Math.min(buffer.length, end);
+                file.seek(end - length);
+                file.readFully(buffer, 0, length);
+                for (int i = length - 1; i >= 0; i--) {
+                    if (buffer[i] == '\n') {
+                        keep = end - length + i + 1;
+                        break;
+                    }
+                }
+                end -= length;
+            }
+            if (keep < file.length()) {
+                Logger.getLogger(CheckpointJournal.class.getName()).log(Level.WARNING,
+                        "Cutting off " + (file.length() - keep) + " bytes of a torn line from " + _file);
+                file.setLength(keep);
+            }
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * @return the ID of the object the completed node resulted in, 0 for
+     * none, or null if the node was not completed yet
+     */
+    public synchronized Long get(String position, long op) {
+        return _done.get(key(position, op));
+    }
+
+    /**
+     * @return reference IDs mapped to the JEVis IDs of completed nodes
+     */
+    public synchronized Map<Long, Long> getReferences() {
+        return new HashMap<Long, Long>(_references);
+    }
+
+    /**
+     * Remember a completed node, it is written by the commit of the batch
+     * it is taken with
+     *
+     * @param objectID ID of the resulting object or 0 for none
+     */
+    public synchronized void completed(String position, long op, long objectID) {
+        _completed.add(Long.toString(op) + SEPARATOR + objectID + SEPARATOR + position + "\n");
+    }
+
+    /**
+     * @return true if enough completed nodes are waiting to be committed
+     */
+    public synchronized boolean isBatchFull() {
+        return _completed.size() >= BATCH_SIZE;
+    }
+
+    /**
+     * Take the nodes completed so far, nodes completed later belong to the
+     * next batch
+     */
+    public synchronized List<String> takeBatch() {
+        List<String> batch = _completed;
+        _completed = new ArrayList<String>();
+        return batch;
+    }
+
+    /**
+     * Write a batch taken before, once the samples of its nodes are committed
+     */
+    public synchronized void commit(List<String> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (String line : batch) {
+            _out.write(line);
+        }
+        _out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        _out.close();
+    }
+
+    /**
+     * Close and remove the journal after the file was processed completely
+     */
+    public synchronized void delete() throws IOException {
+        _out.close();
+        Files.deleteIfExists(_file.toPath());
+    }
+
+    private static String key(String position, long op) {
+        return position + SEPARATOR + op;
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisObject;
+
+/**
+ * Index of the children of JEVisObjects by name and JEVisClass.
+ *
+ * The children of a parent are fetched once on the first lookup, afterwards
+ * the index has to be kept up to date with add() and remove() for every
+ * object created or deleted by the creator. Only IDs are stored, so the
+ * index can be shared by all sessions of a DataSourcePool, the handles are
+ * resolved through the HandleCache of the calling session.
+ *
+ * All methods are thread-safe. The children are fetched without holding a
+ * lock and each parent has its own lock, so lookups under different parents
+ * do not wait for each other.
+ */
+public class ChildIndex {
+
+    private static class Entry {
+        final long id;
+        final String name;
+        final String className;
+
+        Entry(long id, String name, String className) {
+            this.id = id;
+            this.name = name;
+            this.className = className;
+        }
+    }
+
+    private static class Children {
+        // by ID, in order of JEVisObject.getChildren()
+        final Map<Long, Entry> entries = new LinkedHashMap<Long, Entry>();
+        final Map<String, List<Entry>> byKey = new HashMap<String, List<Entry>>();
+
+        synchronized void add(Entry entry) {
+            entries.put(entry.id, entry);
+            String key = key(entry.name, entry.className);
+            List<Entry> list = byKey.get(key);
+            if (list == null) {
+                list = new ArrayList<Entry>(1);
+                byKey.put(key, list);
+            }
+            list.add(entry);
+        }
+
+        synchronized void remove(long id) {
+            Entry entry = entries.remove(id);
+            if (entry != null) {
+                String key = key(entry.name, entry.className);
+                List<Entry> list = byKey.get(key);
+                list.remove(entry);
+                if (list.isEmpty()) {
+                    byKey.remove(key);
+                }
+            }
+        }
+    }
+
+    private final ConcurrentMap<Long, Children> _children = new ConcurrentHashMap<Long, Children>();
+    private final ConcurrentMap<Long, Long> _parentOf = new ConcurrentHashMap<Long, Long>();
+
+    /**
+     * Find the first child of parent with the given name and JEVisClass.
+     *
+     * @param parent object to search under
+     * @param name name of the child, null or empty matches every name
+     * @param className JEVisClass of the child, null or empty matches every
+     * class
+     * @param cache cache of the session to resolve the child with
+     * @return the matching child or null if none was found
+     */
+    public JEVisObject find(JEVisObject parent, String name, String className, HandleCache cache) throws JEVisException {
+        Long id = findID(parent, name, className, cache);
+        return id == null ? null : cache.getObject(id);
+    }
+
+    /**
+     * Find all children of parent with the given name and JEVisClass.
+     *
+     * @see #find(JEVisObject, String, String, HandleCache)
+     * @return the matching children in the order of getChildren()
+     */
+    public List<JEVisObject> findAll(JEVisObject parent, String name, String className, HandleCache cache) throws JEVisException {
+        List<JEVisObject> objects = new ArrayList<JEVisObject>();
+        for (Long id : findIDs(parent, name, className, cache, false)) {
+            JEVisObject object = cache.getObject(id);
+            if (object != null) {
+                objects.add(object);
+            }
+        }
+        return objects;
+    }
+
+    private Long findID(JEVisObject parent, String name, String className, HandleCache cache) throws JEVisException {
+        List<Long> ids = findIDs(parent, name, className, cache, true);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    private List<Long> findIDs(JEVisObject parent, String name, String className, HandleCache cache, boolean first) throws JEVisException {
+        Children children = get(parent, cache);
+        synchronized (children) {
+            return findIDs(children, name, className, first);
+        }
+    }
+
+    private static List<Long> findIDs(Children children, String name, String className, boolean first) {
+        boolean anyName = name == null || name.isEmpty();
+        boolean anyClass = className == null || className.isEmpty();
+        List<Long> ids = new ArrayList<Long>(1);
+
+        if (!anyName && !anyClass) {
+            List<Entry> list = children.byKey.get(key(name, className));
+            if (list != null) {
+                for (Entry entry : list) {
+                    ids.add(entry.id);
+                    if (first) {
+                        break;
+                    }
+                }
+            }
+            return ids;
+        }
+        for (Entry entry : children.entries.values()) {
+            if ((anyName || entry.name.equals(name))
+                    && (anyClass || entry.className.equals(className))) {
+                ids.add(entry.id);
+                if (first) {
+                    break;
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Register a newly created child. The child has no children yet, so
+     * lookups under it do not fetch them.
+     */
+    public void add(JEVisObject parent, JEVisObject child) throws JEVisException {
+        _children.putIfAbsent(child.getID(), new Children());
+        Children children = _children.get(parent.getID());
+        if (children != null) {
+            Entry entry = new Entry(child.getID(), child.getName(), child.getJEVisClass().getName());
+            children.add(entry);
+            _parentOf.put(child.getID(), parent.getID());
+        }
+    }
+
+    /**
+     * Remove a deleted object from the index of its parent and drop the index
+     * of its own children.
+     */
+    public void remove(JEVisObject object) {
+        long id = object.getID();
+        _children.remove(id);
+        Long parentID = _parentOf.remove(id);
+        if (parentID != null) {
+            Children children = _children.get(parentID);
+            if (children != null) {
+                children.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Drop all indexed children, e.g. when objects may have been changed by
+     * someone else
+     */
+    public void clear() {
+        _children.clear();
+        _parentOf.clear();
+    }
+
+    /**
+     * @return the children of parent, fetched without a lock if they are not
+     * indexed yet. If two threads fetch the same parent, the first result is
+     * kept.
+     */
+    private Children get(JEVisObject parent, HandleCache cache) throws JEVisException {
+        Children children = _children.get(parent.getID());
+        if (children != null) {
+            return children;
+        }
+        Children fetched = new Children();
+        for (JEVisObject child : parent.getChildren()) {
+            fetched.add(new Entry(child.getID(), child.getName(), child.getJEVisClass().getName()));
+            cache.putObject(child);
+        }
+        children = _children.putIfAbsent(parent.getID(), fetched);
+        if (children != null) {
+            return children;
+        }
+        for (Long id : fetched.entries.keySet()) {
+            _parentOf.put(id, parent.getID());
+        }
+        return fetched;
+    }
+
+    private static String key(String name, String className) {
+        return className + '\u0000' + name;
+    }
+}
@@ -0,0 +1,414 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jevis.api.JEVisDataSource;
+import org.jevis.api.JEVisException;
+import org.jevis.api.sql.JEVisDataSourceSQL;
+
+/**
+ * A small pool of authenticated JEVisDataSourceSQL sessions.
+ *
+ * Work is executed with a session checked out for the current thread. If the
+ * work fails because the connection dropped, the session is reconnected with
+ * an exponential backoff and the work is replayed. Handles from a previous
+ * attempt must not be reused, the work has to resolve them again through
+ * the cache of the session.
+ *
+ * A thread holds at most one session. Threads which already hold one never
+ * wait for another, they use tryExecute() to get help from idle sessions,
+ * so two threads can not wait for each other's session.
+ */
+public class DataSourcePool {
+
+    public static final int DEFAULT_MAX_RETRIES = 5;
+    public static final long DEFAULT_BACKOFF = 1000;
+    public static final long MAX_BACKOFF = 60000;
+
+    /**
+     * A unit of work executed with one session
+     */
+    public interface Work<T> {
+
+        T run(Session session) throws JEVisException;
+    }
+
+    /**
+     * Opens new JEVisDataSources for the sessions of the pool
+     */
+    public interface Connector {
+
+        /**
+         * @return a connected and authenticated JEVisDataSource
+         */
+        JEVisDataSource connect() throws JEVisException;
+    }
+
+    /**
+     * One authenticated JEVisDataSource with its caches
+     */
+    public static class Session {
+
+        private JEVisDataSource _ds;
+        private HandleCache _cache;
+        private final SampleWriter _sampleWriter;
+
+        private Session(Metrics metrics) {
+            this._sampleWriter = new SampleWriter(metrics);
+        }
+
+        public JEVisDataSource getDataSource() {
+            return _ds;
+        }
+
+        public HandleCache getCache() {
+            return _cache;
+        }
+
+        public SampleWriter getSampleWriter() {
+            return _sampleWriter;
+        }
+
+        private boolean isAlive() {
+            try {
+                return _ds != null && _ds.isConnectionAlive();
+            } catch (JEVisException ex) {
+                return false;
+            }
+        }
+    }
+
+    private final Connector _connector;
+    private final Metrics _metrics;
+
+    private final List<Session> _sessions = new ArrayList<Session>();
+    // guarded by itself, notified when a session is returned
+    private final Deque<Session> _idle = new ArrayDeque<Session>();
+    private final ThreadLocal<Session> _current = new ThreadLocal<Session>();
+    private int _maxRetries = DEFAULT_MAX_RETRIES;
+    private long _backoff = DEFAULT_BACKOFF;
+    private WriteThrottle _throttle;
+
+    /**
+     * @param sqlServer Address of the MySQL Server
+     * @param port Port of the MySQL Server, Default is 3306
+     * @param sqlSchema Database schema of the JEVis database
+     * @param sqlUser MySQl user for the connection
+     * @param sqlPW MySQL password for the connection
+     * @param jevisUser Username of the JEVis user
+     * @param jevisPW Password of the JEVis user
+     * @param metrics metrics to count all JEVis API calls in
+     */
+    public DataSourcePool(String sqlServer, String port, String sqlSchema, String sqlUser, String sqlPW, String jevisUser, String jevisPW, Metrics metrics) {
+        this(sqlConnector(sqlServer, port, sqlSchema, sqlUser, sqlPW, jevisUser, jevisPW), metrics);
+    }
+
+    /**
+     * @param connector opens the JEVisDataSources of the sessions
+     * @param metrics metrics to count all JEVis API calls in
+     */
+    public DataSourcePool(Connector connector, Metrics metrics) {
+        this._connector = connector;
+        this._metrics = metrics;
+    }
+
+    /**
+     * @return a Connector for the MySQL implementation JEAPI-SQL
+     */
+    public static Connector sqlConnector(final String sqlServer, final String port, final String sqlSchema, final String sqlUser, final String sqlPW, final String jevisUser, final String jevisPW) {
+        return new Connector() {
+            @Override
+            public JEVisDataSource connect() throws JEVisException {
+                //Create an new JEVisDataSource from the MySQL implementation
+                //JEAPI-SQl. This connection needs an vaild user on the MySQl Server.
+                JEVisDataSource ds = new JEVisDataSourceSQL(sqlServer, port, sqlSchema, sqlUser, sqlPW);
+
+                //authentificate the JEVis user.
+                if (!ds.connect(jevisUser, jevisPW)) {
+                    throw new JEVisException("Could not authenticate JEVis user: " + jevisUser, 1);
+                }
+                return ds;
+            }
+        };
+    }
+
+    public Metrics getMetrics() {
+        return _metrics;
+    }
+
+    /**
+     * @param maxRetries how often a failed work is replayed after reconnecting
+     */
+    public void setMaxRetries(int maxRetries) {
+        this._maxRetries = maxRetries;
+    }
+
+    /**
+     * @param backoff milliseconds to wait before the first reconnect, doubled
+     * for every further attempt
+     */
+    public void setBackoff(long backoff) {
+        this._backoff = backoff;
+    }
+
+    /**
+     * Throttle the writes of all sessions, has to be set before open()
+     *
+     * @param throttle throttle shared by all sessions or null
+     */
+    public void setWriteThrottle(WriteThrottle throttle) {
+        this._throttle = throttle;
+        _metrics.setWriteThrottle(throttle);
+    }
+
+    /**
+     * Open the given number of sessions
+     *
+     * @throws JEVisException if a session could not be authenticated
+     */
+    public void open(int size) throws JEVisException {
+        for (int i = 0; i < size; i++) {
+            Session session = new Session(_metrics);
+            connect(session);
+            _sessions.add(session);
+            release(session);
+        }
+    }
+
+    public List<Session> getSessions() {
+        return Collections.unmodifiableList(_sessions);
+    }
+
+    /**
+     * @return number of sessions currently not checked out
+     */
+    public int getIdleCount() {
+        synchronized (_idle) {
+            return _idle.size();
+        }
+    }
+
+    /**
+     * @return true if the current thread runs work with a session
+     */
+    public boolean isExecuting() {
+        return _current.get() != null;
+    }
+
+    /**
+     * @return the session checked out by the current thread
+     * @throws IllegalStateException if called outside of execute()
+     */
+    public Session current() {
+        Session session = _current.get();
+        if (session == null) {
+            throw new IllegalStateException("No JEVis session checked out by this thread");
+        }
+        return session;
+    }
+
+    /**
+     * Run work with a session. Nested calls reuse the session of the outer
+     * call and leave the replay to it.
+     */
+    public <T> T execute(Work<T> work) throws JEVisException {
+        Session current = _current.get();
+        if (current != null) {
+            return work.run(current);
+        }
+        return execute(checkout(), work);
+    }
+
+    /**
+     * Run work with an idle session without waiting for one. Must not be
+     * called while work is running.
+     *
+     * @return false if no session was idle and the work did not run
+     */
+    public boolean tryExecute(Work<?> work) throws JEVisException {
+        checkNotExecuting();
+        Session session;
+        synchronized (_idle) {
+            session = _idle.poll();
+        }
+        if (session == null) {
+            return false;
+        }
+        execute(session, work);
+        return true;
+    }
+
+    /**
+     * Commit the pending samples of an owner in every session holding some.
+     * The sessions are checked out one after the other, so no session is
+     * held while waiting for another. Must not be called while work is
+     * running.
+     */
+    public void flush(final SampleWriter.Owner owner) throws JEVisException {
+        checkNotExecuting();
+        for (Session session : _sessions) {
+            if (session.getSampleWriter().hasPending(owner)) {
+                execute(checkout(session), new Work<Void>() {
+                    @Override
+                    public Void run(Session session) {
+                        session.getSampleWriter().flush(owner);
+                        return null;
+                    }
+                });
+            }
+        }
+    }
+
+    private <T> T execute(Session session, Work<T> work) throws JEVisException {
+        _current.set(session);
+        try {
+            return run(session, work);
+        } finally {
+            _current.remove();
+            release(session);
+        }
+    }
+
+    private void checkNotExecuting() {
+        if (_current.get() != null) {
+            throw new IllegalStateException("A JEVis session is already checked out by this thread");
+        }
+    }
+
+    /**
+     * Drop the cached handles of all sessions. Must not be called while work
+     * is running.
+     */
+    public void clearCaches() {
+        for (Session session : _sessions) {
+            session.getCache().clear();
+        }
+    }
+
+    /**
+     * Drop the cached handles of a deleted object from all sessions
+     */
+    public void invalidate(long objectID) {
+        for (Session session : _sessions) {
+            session.getCache().invalidate(objectID);
+        }
+    }
+
+    /**
+     * Rethrow an exception caught inside work if the connection of the
+     * current session dropped, so the work gets replayed.
+     */
+    public void rethrowIfDisconnected(JEVisException ex) throws JEVisException {
+        Session session = _current.get();
+        if (session != null && !session.isAlive()) {
+            throw ex;
+        }
+    }
+
+    public void close() {
+        for (Session session : _sessions) {
+            try {
+                session.getSampleWriter().flush();
+                session._ds.disconnect();
+            } catch (JEVisException ex) {
+                Logger.getLogger(DataSourcePool.class.getName()).log(Level.WARNING, null, ex);
+            }
+        }
+    }
+
+    private <T> T run(Session session, Work<T> work) throws JEVisException {
+        long backoff = _backoff;
+        for (int attempt = 0;; attempt++) {
+            try {
+                return work.run(session);
+            } catch (JEVisException ex) {
+                if (attempt >= _maxRetries || session.isAlive()) {
+                    throw ex;
+                }
+                Logger.getLogger(DataSourcePool.class.getName()).log(Level.WARNING,
+                        String.format("Connection lost, reconnecting in %d ms (attempt %d/%d)",
+                                backoff, attempt + 1, _maxRetries), ex);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException iex) {
+                    Thread.currentThread().interrupt();
+                    throw ex;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF);
+                try {
+                    connect(session);
+                } catch (JEVisException cex) {
+                    Logger.getLogger(DataSourcePool.class.getName()).log(Level.WARNING, "Reconnect failed", cex);
+                }
+            }
+        }
+    }
+
+    private void connect(Session session) throws JEVisException {
+        JEVisDataSource ds = _connector.connect();
+        session._ds = InstrumentedDataSource.wrap(ds, _metrics, _throttle);
+        session._cache = new HandleCache(session._ds);
+        // Pending samples are resolved again through the new cache
+        session._sampleWriter.setCache(session._cache);
+    }
+
+    private Session checkout() {
+        synchronized (_idle) {
+            while (_idle.isEmpty()) {
+                await();
+            }
+            return _idle.poll();
+        }
+    }
+
+    /**
+     * Wait until the given session is idle and check it out
+     */
+    private Session checkout(Session session) {
+        synchronized (_idle) {
+            while (!_idle.remove(session)) {
+                await();
+            }
+            return session;
+        }
+    }
+
+    private void await() {
+        try {
+            _idle.wait();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a JEVis session", ex);
+        }
+    }
+
+    private void release(Session session) {
+        synchronized (_idle) {
+            _idle.add(session);
+            _idle.notifyAll();
+        }
+    }
+}
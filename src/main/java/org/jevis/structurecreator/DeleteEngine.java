@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jevis.api.JEVisAttribute;
+import org.jevis.api.JEVisClass;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisObject;
+
+/**
+ * Deletes objects and their subtrees.
+ *
+ * The subtrees are fetched once with one getChildren() call per object and
+ * flattened iteratively into post-order, so children are always deleted
+ * before their parents and deep trees do not overflow the stack. The
+ * JEVis API deletes one object per call, so the objects are deleted one
+ * after the other, logging progress and rate every progress interval.
+ */
+public class DeleteEngine {
+
+    public static final int DEFAULT_PROGRESS_INTERVAL = 100;
+
+    private final DataSourcePool _pool;
+    private final ChildIndex _childIndex;
+    private final RunSummary _summary;
+    private int _progressInterval = DEFAULT_PROGRESS_INTERVAL;
+
+    public DeleteEngine(DataSourcePool pool, ChildIndex childIndex, RunSummary summary) {
+        this._pool = pool;
+        this._childIndex = childIndex;
+        this._summary = summary;
+    }
+
+    /**
+     * @param progressInterval number of objects deleted between progress
+     * reports
+     */
+    public void setProgressInterval(int progressInterval) {
+        this._progressInterval = Math.max(1, progressInterval);
+    }
+
+    /**
+     * Delete the given objects, has to be called with a session checked out.
+     *
+     * @param objects objects to delete
+     * @param recursive also delete all children of the objects
+     * @return number of deleted objects
+     */
+    public int delete(List<JEVisObject> objects, boolean recursive) throws JEVisException {
+        DataSourcePool.Session session = _pool.current();
+        // Pending samples may belong to the deleted objects
+        session.getSampleWriter().flush();
+
+        List<Long> order = recursive ? postOrder(objects, session.getCache()) : ids(objects);
+        long start = System.currentTimeMillis();
+        int deleted = 0;
+        for (int i = 0; i < order.size(); i++) {
+            JEVisObject object = session.getCache().getObject(order.get(i));
+            if (object != null) {
+                deleteObject(object);
+                deleted++;
+            }
+            if ((i + 1) % _progressInterval == 0 && i + 1 < order.size()) {
+                Logger.getLogger(DeleteEngine.class.getName()).log(Level.INFO, String.format(
+                        "Deleted %d/%d objects (%.1f objects/s)",
+                        i + 1, order.size(), rate(i + 1, start)));
+            }
+        }
+        _summary.deleted(deleted);
+        Logger.getLogger(DeleteEngine.class.getName()).log(Level.INFO, String.format(
+                "Deleted %d objects in %d ms (%.1f objects/s)",
+                deleted, System.currentTimeMillis() - start, rate(deleted, start)));
+        return deleted;
+    }
+
+    /**
+     * Fetch the subtrees of the given roots and list their IDs in
+     * post-order
+     */
+    private List<Long> postOrder(List<JEVisObject> roots, HandleCache cache) throws JEVisException {
+        List<Long> order = new ArrayList<Long>();
+        Deque<JEVisObject> stack = new ArrayDeque<JEVisObject>(roots);
+        while (!stack.isEmpty()) {
+            JEVisObject object = stack.pop();
+            order.add(object.getID());
+            for (JEVisObject child : object.getChildren()) {
+                cache.putObject(child);
+                stack.push(child);
+            }
+        }
+        // Every object is listed before its descendants, reversed they come first
+        Collections.reverse(order);
+        return order;
+    }
+
+    private static List<Long> ids(List<JEVisObject> objects) {
+        List<Long> ids = new ArrayList<Long>(objects.size());
+        for (JEVisObject object : objects) {
+            ids.add(object.getID());
+        }
+        return ids;
+    }
+
+    private void deleteObject(JEVisObject jevisObject) throws JEVisException {
+        long start = System.nanoTime();
+        JEVisClass jevisClass = jevisObject.getJEVisClass();
+        Logger logger = Logger.getLogger(DeleteEngine.class.getName());
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, String.format("Delete Object 'obj/class': '%s/%s'",
+                    jevisObject.getName(), jevisClass == null ? null : jevisClass.getName()));
+        }
+
+        // Objects without class have no attributes
+        List<JEVisAttribute> attributes = jevisClass == null ? null : jevisObject.getAttributes();
+        if (attributes == null) {
+            logger.log(Level.FINE, "Object {0} has no attributes, deleting it without samples", jevisObject.getID());
+        } else {
+            for (JEVisAttribute att : attributes) {
+                att.deleteAllSample();
+            }
+        }
+
+        jevisObject.delete();
+        _childIndex.remove(jevisObject);
+        _pool.invalidate(jevisObject.getID());
+        _pool.getMetrics().record(Metrics.Operation.DELETE, start);
+    }
+
+    private static double rate(long count, long start) {
+        long duration = Math.max(1, System.currentTimeMillis() - start);
+        return count * 1000.0 / duration;
+    }
+}
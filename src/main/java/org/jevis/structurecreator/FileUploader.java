@@ -0,0 +1,216 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisFile;
+import org.jevis.api.JEVisSample;
+import org.jevis.commons.JEVisFileImp;
+
+/**
+ * Prepares $(FILE) uploads by content.
+ *
+ * Every file is hashed once per run with a streaming read. An upload is
+ * skipped if the latest sample of the attribute already holds a file with
+ * the same digest. The digest is stored in the note of uploaded samples, so
+ * later runs can compare without downloading the file. The bytes of a file
+ * are only read when it actually has to be uploaded and are kept in a
+ * size-bounded cache for other objects uploading the same content, each
+ * upload gets its own JEVisFile with the name of its file. The digests are
+ * kept for the most recently prepared files only, so long daemon runs do not
+ * grow the cache.
+ */
+public class FileUploader {
+
+    public static final String DIGEST_ALGORITHM = "SHA-256";
+    public static final String NOTE_PREFIX = "sha256:";
+    public static final long DEFAULT_CACHE_SIZE = 64L * 1024 * 1024;
+    public static final int DEFAULT_MAX_PREPARED = 10000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * A file to upload, identified by its digest
+     */
+    public static class FileUpload {
+
+        private final File _file;
+        private final String _digest;
+
+        FileUpload(File file, String digest) {
+            this._file = file;
+            this._digest = digest;
+        }
+
+        public File getFile() {
+            return _file;
+        }
+
+        public String getDigest() {
+            return _digest;
+        }
+
+        /**
+         * @return note to store with the uploaded sample
+         */
+        public String getNote() {
+            return NOTE_PREFIX + _digest;
+        }
+
+        @Override
+        public String toString() {
+            return _file.getName() + " (" + getNote() + ")";
+        }
+    }
+
+    // prepared files by path and modification, least recently used first
+    private final LinkedHashMap<String, FileUpload> _uploads = new LinkedHashMap<String, FileUpload>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FileUpload> eldest) {
+            return size() > _maxPrepared;
+        }
+    };
+    // loaded content by digest, least recently used first
+    private final LinkedHashMap<String, byte[]> _loaded = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+    private long _loadedSize = 0;
+    private long _cacheSize = DEFAULT_CACHE_SIZE;
+    private int _maxPrepared = DEFAULT_MAX_PREPARED;
+
+    /**
+     * @param cacheSize maximum number of bytes of loaded files to keep
+     */
+    public synchronized void setCacheSize(long cacheSize) {
+        this._cacheSize = cacheSize;
+    }
+
+    /**
+     * @param maxPrepared maximum number of files to remember the digest of
+     */
+    public synchronized void setMaxPrepared(int maxPrepared) {
+        this._maxPrepared = Math.max(1, maxPrepared);
+    }
+
+    /**
+     * Hash a file, each file is only hashed again if it was modified
+     */
+    public synchronized FileUpload prepare(File file) throws IOException {
+        String key = file.getCanonicalPath() + '\u0000' + file.lastModified() + '\u0000' + file.length();
+        FileUpload upload = _uploads.get(key);
+        if (upload == null) {
+            upload = new FileUpload(file, digest(file));
+            _uploads.put(key, upload);
+        }
+        return upload;
+    }
+
+    /**
+     * Check if the latest sample of an attribute already holds the file
+     *
+     * @param latestSample latest sample of the attribute, may be null
+     */
+    public boolean isUploaded(JEVisSample latestSample, FileUpload upload) throws JEVisException {
+        if (latestSample == null) {
+            return false;
+        }
+        String note = latestSample.getNote();
+        if (note != null && note.startsWith(NOTE_PREFIX)) {
+            return note.equals(upload.getNote());
+        }
+        // Uploaded without digest, compare the content
+        JEVisFile latest = latestSample.getValueAsFile();
+        if (latest == null || latest.getBytes() == null
+                || latest.getBytes().length != upload.getFile().length()) {
+            return false;
+        }
+        return digest(latest.getBytes()).equals(upload.getDigest());
+    }
+
+    /**
+     * Read the file to upload
+     */
+    public synchronized JEVisFile load(FileUpload upload) throws IOException {
+        byte[] bytes = _loaded.get(upload.getDigest());
+        if (bytes == null) {
+            JEVisFile jfile = new JEVisFileImp(upload.getFile().getName(), upload.getFile());
+            bytes = jfile.getBytes();
+            if (bytes != null && bytes.length <= _cacheSize) {
+                _loaded.put(upload.getDigest(), bytes);
+                _loadedSize += bytes.length;
+                for (Iterator<byte[]> it = _loaded.values().iterator(); it.hasNext() && _loadedSize > _cacheSize;) {
+                    _loadedSize -= it.next().length;
+                    it.remove();
+                }
+            }
+            return jfile;
+        }
+        // Same content, but the name of this file
+        JEVisFile jfile = new JEVisFileImp();
+        jfile.setFilename(upload.getFile().getName());
+        jfile.setBytes(bytes);
+        return jfile;
+    }
+
+    private static String digest(File file) throws IOException {
+        MessageDigest md = newDigest();
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                md.update(buffer);
+                buffer.clear();
+            }
+        } finally {
+            raf.close();
+        }
+        return toHex(md.digest());
+    }
+
+    private static String digest(byte[] bytes) {
+        return toHex(newDigest().digest(bytes));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException ex) {
+            // every Java platform has to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b & 0xff));
+        }
+        return sb.toString();
+    }
+}
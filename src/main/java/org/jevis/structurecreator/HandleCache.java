@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.jevis.api.JEVisAttribute;
+import org.jevis.api.JEVisClass;
+import org.jevis.api.JEVisDataSource;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisObject;
+
+/**
+ * Caches JEVisClass, JEVisObject and JEVisAttribute handles of one
+ * JEVisDataSource session.
+ *
+ * Objects created or deleted through the creator have to be registered with
+ * putObject() and invalidate(). All methods are thread-safe.
+ */
+public class HandleCache {
+
+    private final JEVisDataSource _ds;
+    // missing classes/objects are cached as null
+    private final Map<String, JEVisClass> _classes = new HashMap<String, JEVisClass>();
+    private final Map<Long, JEVisObject> _objects = new HashMap<Long, JEVisObject>();
+    private final Map<Long, Map<String, JEVisAttribute>> _attributes = new HashMap<Long, Map<String, JEVisAttribute>>();
+    // primitive type per JEVisClass and attribute name
+    private final Map<String, Integer> _primitiveTypes = new HashMap<String, Integer>();
+
+    public HandleCache(JEVisDataSource ds) {
+        this._ds = ds;
+    }
+
+    public JEVisDataSource getDataSource() {
+        return _ds;
+    }
+
+    public synchronized JEVisClass getJEVisClass(String name) throws JEVisException {
+        if (!_classes.containsKey(name)) {
+            _classes.put(name, _ds.getJEVisClass(name));
+        }
+        return _classes.get(name);
+    }
+
+    public synchronized JEVisObject getObject(long id) throws JEVisException {
+        if (!_objects.containsKey(id)) {
+            _objects.put(id, _ds.getObject(id));
+        }
+        return _objects.get(id);
+    }
+
+    public synchronized void putObject(JEVisObject object) {
+        _objects.put(object.getID(), object);
+        _attributes.remove(object.getID());
+    }
+
+    /**
+     * Get an attribute of the given object. All attributes of the object are
+     * fetched at once on the first call.
+     *
+     * @return the attribute or null if the object has no such attribute
+     */
+    public synchronized JEVisAttribute getAttribute(JEVisObject object, String name) throws JEVisException {
+        Map<String, JEVisAttribute> attributes = _attributes.get(object.getID());
+        if (attributes == null) {
+            attributes = new HashMap<String, JEVisAttribute>();
+            for (JEVisAttribute att : object.getAttributes()) {
+                attributes.put(att.getName(), att);
+            }
+            _attributes.put(object.getID(), attributes);
+        }
+        return attributes.get(name);
+    }
+
+    /**
+     * Get the primitive type of an attribute, cached per JEVisClass of the
+     * object and attribute name.
+     */
+    public synchronized int getPrimitiveType(JEVisObject object, JEVisAttribute attribute) throws JEVisException {
+        String key = object.getJEVisClass().getName() + '\u0000' + attribute.getName();
+        Integer type = _primitiveTypes.get(key);
+        if (type == null) {
+            type = attribute.getType().getPrimitiveType();
+            _primitiveTypes.put(key, type);
+        }
+        return type;
+    }
+
+    /**
+     * Drop the cached handles of a deleted object
+     */
+    public synchronized void invalidate(long objectID) {
+        _objects.remove(objectID);
+        _attributes.remove(objectID);
+    }
+
+    public synchronized void clear() {
+        _classes.clear();
+        _objects.clear();
+        _attributes.clear();
+        _primitiveTypes.clear();
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.jevis.api.JEVisAttribute;
+import org.jevis.api.JEVisDataSource;
+import org.jevis.api.JEVisObject;
+
+/**
+ * Wraps a JEVisDataSource so every call to it and to the objects and
+ * attributes it returns is counted and timed in the Metrics.
+ *
+ * Samples, classes and types are returned as they are, their calls are
+ * answered from the handle. Lists of objects or attributes are wrapped
+ * lazily, an element gets its wrapper on the first access. Arguments are
+ * unwrapped before they are passed to the wrapped implementation, so it
+ * still gets its own objects. With a WriteThrottle every mutating call waits
+ * for its permits first.
+ */
+public class InstrumentedDataSource {
+
+    private static final Class<?>[] WRAPPED = {
+        JEVisDataSource.class, JEVisObject.class, JEVisAttribute.class
+    };
+    private static final Set<String> MUTATIONS = new HashSet<String>(Arrays.asList(
+            "commit", "delete", "deleteObject", "deleteSamplesBetween", "deleteAllSample", "addSamples"));
+
+    private InstrumentedDataSource() {
+    }
+
+    public static JEVisDataSource wrap(JEVisDataSource ds, Metrics metrics) {
+        return wrap(ds, metrics, null);
+    }
+
+    /**
+     * @param throttle throttle for the mutating calls or null
+     */
+    public static JEVisDataSource wrap(JEVisDataSource ds, Metrics metrics, WriteThrottle throttle) {
+        return (JEVisDataSource) wrapValue(ds, metrics, throttle);
+    }
+
+    private static class Handler implements InvocationHandler {
+
+        private final Object _target;
+        private final String _prefix;
+        private final Metrics _metrics;
+        private final WriteThrottle _throttle;
+
+        Handler(Object target, Class<?> type, Metrics metrics, WriteThrottle throttle) {
+            this._target = target;
+            this._prefix = type.getSimpleName() + ".";
+            this._metrics = metrics;
+            this._throttle = throttle;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                if (method.getName().equals("equals")) {
+                    return _target.equals(unwrap(args[0]));
+                }
+                return method.invoke(_target, args);
+            }
+            Object[] unwrapped = null;
+            if (args != null) {
+                unwrapped = new Object[args.length];
+                for (int i = 0; i < args.length; i++) {
+                    unwrapped[i] = unwrap(args[i]);
+                }
+            }
+            boolean mutation = _throttle != null && MUTATIONS.contains(method.getName());
+            if (mutation) {
+                long waitStart = System.nanoTime();
+                _throttle.acquire(method.getName().equals("addSamples") && args[0] instanceof List
+                        ? _throttle.permitsForSamples(((List<?>) args[0]).size()) : 1);
+                _metrics.record(Metrics.Operation.THROTTLE_WAIT, waitStart);
+            }
+            long start = System.nanoTime();
+            try {
+                return wrapValue(method.invoke(_target, unwrapped), _metrics, _throttle);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            } finally {
+                long nanos = System.nanoTime() - start;
+                _metrics.recordCall(_prefix + method.getName(), nanos);
+                if (mutation) {
+                    _throttle.completed(nanos);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wraps the elements of a list on their first access
+     */
+    private static class LazyList extends AbstractList<Object> {
+
+        private final List<?> _list;
+        private final Object[] _wrapped;
+        private final Metrics _metrics;
+        private final WriteThrottle _throttle;
+
+        LazyList(List<?> list, Metrics metrics, WriteThrottle throttle) {
+            this._list = list;
+            this._wrapped = new Object[list.size()];
+            this._metrics = metrics;
+            this._throttle = throttle;
+        }
+
+        @Override
+        public Object get(int index) {
+            if (_wrapped[index] == null) {
+                _wrapped[index] = wrapValue(_list.get(index), _metrics, _throttle);
+            }
+            return _wrapped[index];
+        }
+
+        @Override
+        public int size() {
+            return _wrapped.length;
+        }
+    }
+
+    private static Object wrapValue(Object value, Metrics metrics, WriteThrottle throttle) {
+        if (value == null || isWrapped(value)) {
+            return value;
+        }
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            // Lists of samples are returned as they are
+            return list.isEmpty() || wrappedType(list.get(0)) == null ? list : new LazyList(list, metrics, throttle);
+        }
+        Class<?> type = wrappedType(value);
+        if (type == null) {
+            return value;
+        }
+        return Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, new Handler(value, type, metrics, throttle));
+    }
+
+    private static Class<?> wrappedType(Object value) {
+        for (Class<?> type : WRAPPED) {
+            if (type.isInstance(value)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static Object unwrap(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof LazyList) {
+            return ((LazyList) value)._list;
+        }
+        if (isWrapped(value)) {
+            return ((Handler) Proxy.getInvocationHandler(value))._target;
+        }
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            List<Object> unwrapped = null;
+            for (int i = 0; i < list.size(); i++) {
+                Object element = list.get(i);
+                if (unwrapped == null && element != null && isWrapped(element)) {
+                    // Only copy lists which contain wrapped elements
+                    unwrapped = new ArrayList<Object>(list.subList(0, i));
+                }
+                if (unwrapped != null) {
+                    unwrapped.add(unwrap(element));
+                }
+            }
+            return unwrapped == null ? list : unwrapped;
+        }
+        return value;
+    }
+
+    private static boolean isWrapped(Object value) {
+        return Proxy.isProxyClass(value.getClass())
+                && Proxy.getInvocationHandler(value) instanceof Handler;
+    }
+}
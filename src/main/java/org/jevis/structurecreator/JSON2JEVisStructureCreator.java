@@ -19,29 +19,28 @@
 
 package org.jevis.structurecreator;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jevis.api.JEVisAttribute;
 import org.jevis.api.JEVisClass;
 import org.jevis.api.JEVisConstants.PrimitiveType;
-import org.jevis.api.JEVisDataSource;
 import org.jevis.api.JEVisException;
-import org.jevis.api.JEVisFile;
 import org.jevis.api.JEVisObject;
 import org.jevis.api.JEVisSample;
-import org.jevis.api.sql.JEVisDataSourceSQL;
-import org.jevis.commons.JEVisFileImp;
 import org.jevis.commons.json.JsonAttribute;
 import org.jevis.commons.json.JsonObject;
-import org.joda.time.DateTime;
 
 
 public class JSON2JEVisStructureCreator {
@@ -56,30 +55,172 @@ public class JSON2JEVisStructureCreator {
         final long DELETE_OLD_SAMPLES = -5;
         final long DELETE_OLD_SAMPLES_RECURSIVE = -6;
     }
-    private static final String REFERENCE_MARKER = "$(REF)";
-    private static final String FILE_MARKER = "$(FILE)";
+    static final String REFERENCE_MARKER = "$(REF)";
+    static final String FILE_MARKER = "$(FILE)";
+    static final String SAMPLES_MARKER = "$(SAMPLES)";
     /**
-     * The JEVisDataSource is the central class handling the connection to the
+     * The pool of JEVisDataSource sessions handling the connection to the
      * JEVis Server
      */
-    private static JEVisDataSource _jevis_ds;
+    private DataSourcePool _pool;
     
-    private HashMap<Long,Long> _mappedIDs;
-    private String _jsonFile;
+    private ChildIndex _childIndex;
+    private DeleteEngine _deleteEngine;
+    private RetentionEngine _retentionEngine;
+    private RootResolver _rootResolver;
+    private FileUploader _fileUploader;
+    private SampleImporter _sampleImporter;
+    private RunSummary _summary;
+    private Metrics _metrics;
+    private String _reportFile;
+    private int _parallelism = 1;
+    private int _poolSize = 1;
+    private int _sampleBatchSize = SampleWriter.DEFAULT_BATCH_SIZE;
+    private long _sampleFlushInterval = SampleWriter.DEFAULT_FLUSH_INTERVAL;
+    private boolean _journaling = false;
+    private boolean _resume = false;
+    private boolean _incremental = false;
+    private boolean _verify = false;
+    private WriteThrottle _writeThrottle;
+    
+    /**
+     * State of the file currently processed, owner of the samples written
+     * for it
+     */
+    private static class FileContext implements SampleWriter.Owner {
+
+        private final String _jsonFile;
+        private final ReferenceResolver _references;
+        private final CheckpointJournal _journal;
+        private final StructureState _state;
+        private final AtomicLong _failedSamples = new AtomicLong();
+        // failed samples when the journal was last committed
+        private long _journaledFailures;
+
+        FileContext(String jsonFile, ReferenceResolver references, CheckpointJournal journal, StructureState state) {
+            this._jsonFile = jsonFile;
+            this._references = references;
+            this._journal = journal;
+            this._state = state;
+        }
+
+        @Override
+        public void failed(int samples) {
+            _failedSamples.addAndGet(samples);
+        }
+    }
     
      /**
      * Example how to use WiotechStructureCreator
      *
-     * @param args not used
+     * The connection is configured with the system properties jevis.sqlserver,
+     * jevis.port, jevis.schema, jevis.sqluser, jevis.sqlpassword, jevis.user
+     * and jevis.password.
+     *
+     * @param args json-files to process, "--journal" keeps a journal of the
+     * completed nodes, "--resume" continues after the nodes journaled by an
+     * interrupted run of the same files, also per file in the daemon,
+     * "--incremental" skips the subtrees which did not change since the last
+     * run, "--verify" keeps the state but processes every subtree, or
+     * "--watch &lt;dir&gt;" and/or "--listen &lt;port&gt;" to keep running
+     * and process files as they arrive, or "--export &lt;id&gt; &lt;file&gt;"
+     * with the optional "--export-refs &lt;attribute,...&gt;" and
+     * "--export-files" to export an existing subtree. "--concurrency
+     * &lt;n&gt;" opens n sessions and processes independent subtrees of a
+     * file with n threads, the daemon also processes n files at the same
+     * time. "--write-rate &lt;n&gt;" limits the
+     * writes per second, lowered while the p95 write latency exceeds
+     * "--write-latency &lt;ms&gt;"
      */
     public static void main(String[] args){
         
+        String watchDir = null;
+        int listenPort = -1;
+        int concurrency = 1;
+        boolean journal = false;
+        boolean resume = false;
+        boolean incremental = false;
+        boolean verify = false;
+        long exportID = -1;
+        String exportFile = null;
+        Set<String> exportRefs = new HashSet<String>();
+        boolean exportFiles = false;
+        double writeRate = -1;
+        long writeLatency = WriteThrottle.DEFAULT_TARGET_LATENCY;
+        List<String> jsonFiles = new ArrayList<String>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--watch") && i + 1 < args.length) {
+                watchDir = args[++i];
+            } else if (args[i].equals("--listen") && i + 1 < args.length) {
+                listenPort = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--concurrency") && i + 1 < args.length) {
+                concurrency = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--journal")) {
+                journal = true;
+            } else if (args[i].equals("--resume")) {
+                resume = true;
+            } else if (args[i].equals("--incremental")) {
+                incremental = true;
+            } else if (args[i].equals("--verify")) {
+                verify = true;
+            } else if (args[i].equals("--export") && i + 2 < args.length) {
+                exportID = Long.parseLong(args[++i]);
+                exportFile = args[++i];
+            } else if (args[i].equals("--export-refs") && i + 1 < args.length) {
+                for (String name : args[++i].split(",")) {
+                    if (!name.trim().isEmpty()) {
+                        exportRefs.add(name.trim());
+                    }
+                }
+            } else if (args[i].equals("--export-files")) {
+                exportFiles = true;
+            } else if (args[i].equals("--write-rate") && i + 1 < args.length) {
+                writeRate = Double.parseDouble(args[++i]);
+            } else if (args[i].equals("--write-latency") && i + 1 < args.length) {
+                writeLatency = Long.parseLong(args[++i]);
+            } else {
+                jsonFiles.add(args[i]);
+            }
+        }
+        boolean daemon = watchDir != null || listenPort >= 0;
+        if (exportFile != null && (journal || resume)) {
+            Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE,
+                    "--journal and --resume can not be combined with --export");
+            System.exit(1);
+        }
+        
         JSON2JEVisStructureCreator wsc = new JSON2JEVisStructureCreator();
-        wsc.connectToJEVis("localhost", "3306", "jevis", "jevis", "jevistest", "Sys Admin", "jevis");
+        wsc.setReportFile(System.getProperty("structurecreator.report"));
+        wsc.setIncremental(incremental || verify);
+        wsc.setVerify(verify);
+        wsc.setJournaling(journal || resume);
+        wsc.setResume(resume);
+        wsc.setParallelism(concurrency);
+        wsc.setPoolSize(concurrency);
+        if (writeRate > 0) {
+            WriteThrottle throttle = new WriteThrottle(writeRate);
+            throttle.setTargetLatency(writeLatency);
+            wsc.setWriteThrottle(throttle);
+        }
+        if (!wsc.connectToJEVis(System.getProperty("jevis.sqlserver", "localhost"),
+                System.getProperty("jevis.port", "3306"),
+                System.getProperty("jevis.schema", "jevis"),
+                System.getProperty("jevis.sqluser", "jevis"),
+                System.getProperty("jevis.sqlpassword", "jevistest"),
+                System.getProperty("jevis.user", "Sys Admin"),
+                System.getProperty("jevis.password", "jevis"))) {
+            System.exit(1);
+        }
+        if (daemon) {
+            runDaemon(wsc, watchDir, listenPort, concurrency);
+            return;
+        }
         try {
-            // Process all given json-files
-            if (args.length > 0) {
-                for (String jsonFile : args) {
+            if (exportFile != null) {
+                wsc.exportJSONFile(exportID, exportFile, exportRefs, exportFiles);
+            } else if (!jsonFiles.isEmpty()) {
+                // Process all given json-files
+                for (String jsonFile : jsonFiles) {
                     wsc.processJSONFile(jsonFile);
                 }
             } else { // use defaults
@@ -93,79 +234,487 @@ public class JSON2JEVisStructureCreator {
             Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, null, ex);
         } catch (IOException ex) {
             Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, null, ex);
+        } finally {
+            wsc.disconnect();
+        }
+    }
+    
+    /**
+     * Keep the connection and process files as they arrive until the JVM
+     * is shut down
+     */
+    private static void runDaemon(final JSON2JEVisStructureCreator wsc, String watchDir, int listenPort, int concurrency) {
+        final StructureDaemon daemon = new StructureDaemon(wsc, concurrency);
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                daemon.stop();
+                wsc.disconnect();
+            }
+        }));
+        try {
+            if (watchDir != null) {
+                daemon.watch(new File(watchDir));
+            }
+            if (listenPort >= 0) {
+                daemon.listen(listenPort);
+            }
+            daemon.awaitStop();
+        } catch (IOException ex) {
+            Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, null, ex);
+            System.exit(1);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
         }
     }
     
     public JSON2JEVisStructureCreator() {
-        this._mappedIDs = new HashMap<Long,Long>();
+        this._childIndex = new ChildIndex();
+        this._rootResolver = new RootResolver(_childIndex);
+        this._fileUploader = new FileUploader();
+        this._summary = new RunSummary();
+        this._metrics = new Metrics();
+        this._sampleImporter = new SampleImporter(_metrics, _summary);
+    }
+    
+    /**
+     * @param reportFile file to write the metrics of the run to as JSON when
+     * disconnecting, null to write no report
+     */
+    public void setReportFile(String reportFile) {
+        _reportFile = reportFile;
+    }
+    
+    public Metrics getMetrics() {
+        return _metrics;
+    }
+    
+    /**
+     * Process independent sibling subtrees in parallel. The whole file is
+     * loaded into memory in this mode.
+     * 
+     * @param parallelism number of worker threads, 1 processes the file
+     * streamed and sequentially
+     */
+    public void setParallelism(int parallelism) {
+        _parallelism = Math.max(1, parallelism);
+    }
+    
+    /**
+     * Number of JEVis sessions to open, has to be set before connectToJEVis.
+     * Should be at least the parallelism.
+     * 
+     * @param poolSize number of sessions
+     */
+    public void setPoolSize(int poolSize) {
+        _poolSize = Math.max(1, poolSize);
+    }
+    
+    /**
+     * @param batchSize number of pending samples after which they are
+     * committed, still with one round trip per attribute
+     */
+    public void setSampleBatchSize(int batchSize) {
+        _sampleBatchSize = batchSize;
+        configureSampleWriters();
+    }
+    
+    /**
+     * @param flushInterval milliseconds after which pending samples are
+     * committed even if the batch is not full
+     */
+    public void setSampleFlushInterval(long flushInterval) {
+        _sampleFlushInterval = flushInterval;
+        configureSampleWriters();
+    }
+    
+    /**
+     * @param chunkSize number of samples imported from a $(SAMPLES) file
+     * with one commit
+     */
+    public void setImportChunkSize(int chunkSize) {
+        _sampleImporter.setChunkSize(chunkSize);
+    }
+    
+    /**
+     * Keep a journal of the completed nodes next to every processed file,
+     * it is deleted once the file was processed completely. Completed nodes
+     * are journaled in batches, after the samples of each subtree under the
+     * root or of every CheckpointJournal.BATCH_SIZE nodes were committed.
+     * 
+     * @param journaling true to write a journal
+     */
+    public void setJournaling(boolean journaling) {
+        _journaling = journaling;
+    }
+    
+    /**
+     * @param resume skip the nodes recorded in the journal of a previous,
+     * interrupted run of an unchanged file
+     */
+    public void setResume(boolean resume) {
+        _resume = resume;
+    }
+    
+    /**
+     * Keep the state of every processed file next to it and skip subtrees
+     * which did not change since the last run. The hashes and the state of
+     * every node of a file are held in memory while it is processed.
+     * 
+     * @param incremental true to skip unchanged subtrees
+     */
+    public void setIncremental(boolean incremental) {
+        _incremental = incremental;
+    }
+    
+    /**
+     * @param verify process every node even if it did not change, the state
+     * is still saved
+     */
+    public void setVerify(boolean verify) {
+        _verify = verify;
+    }
+    
+    /**
+     * Limit the rate of writes to the database, has to be set before
+     * connectToJEVis
+     * 
+     * @param throttle throttle for all sessions, null writes as fast as
+     * possible
+     */
+    public void setWriteThrottle(WriteThrottle throttle) {
+        _writeThrottle = throttle;
+    }
+    
+    private void configureSampleWriters() {
+        if (_pool == null) {
+            return;
+        }
+        for (DataSourcePool.Session session : _pool.getSessions()) {
+            session.getSampleWriter().setBatchSize(_sampleBatchSize);
+            session.getSampleWriter().setFlushInterval(_sampleFlushInterval);
+        }
+    }
+    
+    /**
+     * Drop all cached classes, objects, children and roots, so changes made
+     * by others are seen. Must not be called while a file is processed.
+     */
+    public void clearCaches() {
+        _childIndex.clear();
+        _rootResolver.clear();
+        if (_pool != null) {
+            _pool.clearCaches();
+        }
+    }
+    
+    /**
+     * @return the cache of the session checked out by the current thread
+     */
+    private HandleCache cache() {
+        return _pool.current().getCache();
     }
     
     /**
      * 
      * Creates the needed JEVis structure
      * 
+     * The file is streamed node by node, so the whole tree is never held in
+     * memory. With a parallelism &gt; 1 the tree is loaded and independent
+     * subtrees are processed in parallel.
+     * 
      */
     public void processJSONFile(String jsonFile) throws JEVisException, IOException {
-        _jsonFile = jsonFile;
+        processJSONFile(jsonFile, null);
+    }
+    
+    /**
+     * Creates the needed JEVis structure, see processJSONFile(String)
+     * 
+     * @param stateDir directory to keep the journal and the state of the
+     * file in, null for the directory of the file
+     */
+    public void processJSONFile(String jsonFile, File stateDir) throws JEVisException, IOException {
+        ReferenceResolver references = new ReferenceResolver();
+        CheckpointJournal journal = null;
+        if (_journaling) {
+            journal = CheckpointJournal.open(new File(jsonFile), stateDir, _resume);
+            // Restore the references of the completed nodes
+            references.putAll(journal.getReferences());
+        }
+        StructureState state = null;
+        if (_incremental) {
+            state = StructureState.open(jsonFile, stateDir, _verify);
+        }
+        FileContext context = new FileContext(jsonFile, references, journal, state);
+        boolean completed = false;
+        JsonStructureReader reader = new JsonStructureReader(Files.newBufferedReader(
+                Paths.get(jsonFile), StandardCharsets.UTF_8));
+        try {
+            JsonObject root = reader.readRoot();
+            System.out.println(root.getId() + ":" + root.getName() + ":" + root.getJevisClass());
+
+            final JsonObject rootHeader = root;
+            JEVisObject rootObj = _pool.execute(new DataSourcePool.Work<JEVisObject>() {
+                @Override
+                public JEVisObject run(DataSourcePool.Session session) throws JEVisException {
+                    return _rootResolver.resolve(rootHeader, session);
+                }
+            });
+            if (rootObj == null) {
+                reader.skipChildren();
+                completed = true;
+                return;
+            }
+
+            // Pretty-print current JEVis build
+            //System.out.println(gson.toJson(JsonFactory.buildObject(rootObj, true, true, false)));
+
+            // Create all children under given root-node
+            if (_parallelism > 1) {
+                processParallel(reader, rootObj, context);
+            } else {
+                processStreamed(reader, rootObj, context);
+            }
+            writeDeferred(context);
+            if (state != null) {
+                _pool.flush(context);
+                if (context._failedSamples.get() == 0) {
+                    state.save(references.getMappedIDs());
+                } else {
+                    Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.WARNING,
+                            "Samples could not be committed, not saving the state of " + jsonFile);
+                }
+            }
+            completed = true;
+        } finally {
+            commitSamples(context);
+            reader.close();
+            if (journal != null) {
+                if (completed) {
+                    journal.delete();
+                } else {
+                    journal.close();
+                }
+            }
+        }
+        System.out.println("Run summary after " + jsonFile + ": " + _summary);
+    }
+    
+    /**
+     * Export an existing JEVis subtree into a json-file of the structure
+     * format. The children are fetched in parallel with all idle sessions.
+     * 
+     * @param rootID ID of the object to export as root
+     * @param jsonFile file to write
+     * @param referenceAttributes names of the attributes whose values are
+     * written as $(REF) values if they hold the ID of an exported object
+     * @param extractFiles save file attributes next to the json-file and
+     * write them as $(FILE) values
+     */
+    public void exportJSONFile(long rootID, String jsonFile, Set<String> referenceAttributes, boolean extractFiles) throws JEVisException, IOException {
+        StructureExporter exporter = new StructureExporter(_pool, _poolSize);
+        exporter.setReferenceAttributes(referenceAttributes);
+        exporter.setExtractFiles(extractFiles);
+        exporter.export(rootID, jsonFile);
+    }
+    
+    /**
+     * Stream the children of the root and process them one by one
+     */
+    private void processStreamed(final JsonStructureReader reader, JEVisObject rootObj, final FileContext context) throws JEVisException, IOException {
+        reader.readChildren(new JsonStructureReader.NodeHandler<JEVisObject>() {
+            private int depth = 0;
+
+            @Override
+            public JEVisObject enter(final JsonObject node, final JEVisObject parent) throws JEVisException {
+                depth++;
+                JEVisObject object = _pool.execute(new DataSourcePool.Work<JEVisObject>() {
+                    @Override
+                    public JEVisObject run(DataSourcePool.Session session) throws JEVisException {
+                        return createObjectFromJSON(node, parent, context);
+                    }
+                });
+                if (context._state != null && context._state.isSkipped(((StructureNode) node).getPosition())) {
+                    reader.skipCurrentChildren();
+                }
+                return object;
+            }
+
+            @Override
+            public void leave(JsonObject node, JEVisObject object) throws JEVisException {
+                depth--;
+                // Commit samples of each finished subtree under the root
+                if (depth == 0 || (context._journal != null && context._journal.isBatchFull())) {
+                    commitSamples(context);
+                }
+            }
+        }, rootObj);
+    }
+    
+    /**
+     * Load all children of the root into memory and process independent
+     * sibling subtrees in parallel
+     */
+    private void processParallel(JsonStructureReader reader, JEVisObject rootObj, final FileContext context) throws JEVisException, IOException {
+        JsonObject tree = new JsonObject();
+        tree.setChildren(new ArrayList<JsonObject>());
+        reader.readChildren(new JsonStructureReader.NodeHandler<JsonObject>() {
+            @Override
+            public JsonObject enter(JsonObject node, JsonObject parent) {
+                parent.getChildren().add(node);
+                return node;
+            }
+
+            @Override
+            public void leave(JsonObject node, JsonObject context) {
+            }
+        }, tree);
         
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        String input = new String(Files.readAllBytes(Paths.get(jsonFile)), StandardCharsets.UTF_8);
+        SubtreeScheduler scheduler = new SubtreeScheduler(_parallelism, new SubtreeScheduler.NodeProcessor() {
+            @Override
+            public JEVisObject process(final JsonObject node, final JEVisObject parent) throws JEVisException {
+                JEVisObject object = _pool.execute(new DataSourcePool.Work<JEVisObject>() {
+                    @Override
+                    public JEVisObject run(DataSourcePool.Session session) throws JEVisException {
+                        return processObject(node, parent, context);
+                    }
+                });
+                if (context._state != null && context._state.isSkipped(((StructureNode) node).getPosition())) {
+                    node.setChildren(new ArrayList<JsonObject>());
+                }
+                if (context._journal != null && context._journal.isBatchFull()) {
+                    commitSamples(context);
+                }
+                return object;
+            }
+        });
+        try {
+            scheduler.run(tree.getChildren(), rootObj);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+    
+    private JEVisObject createObjectFromJSON(JsonObject jsonObject, JEVisObject parent, FileContext context) throws JEVisException {
+        JEVisObject jevisObject = processObject(jsonObject, parent, context);
+        if (jsonObject == null) {
+            return null;
+        }
         
-        JsonObject root = gson.fromJson(input, JsonObject.class);
-        System.out.println(root.getId() + ":" + root.getName() + ":" + root.getJevisClass());
+        // Create children from JSON, streamed nodes come without children
+        for (JsonObject child : jsonObject.getChildren()) {
+            createObjectFromJSON(child, jevisObject, context);
+        }
+        return jevisObject;
+    }
+    
+    /**
+     * Execute the operation of a single JSON node, without its children.
+     * Nodes recorded in the journal are skipped, others are recorded once
+     * they completed.
+     * 
+     * @param jsonObject node to process
+     * @param parent object to process the node under
+     * @param context the file the node was read from
+     * @return the created/found object to process the children under
+     */
+    private JEVisObject processObject(JsonObject jsonObject, JEVisObject parent, FileContext context) throws JEVisException {
+        String position = jsonObject instanceof StructureNode ? ((StructureNode) jsonObject).getPosition() : null;
+        if ((context._journal == null && context._state == null) || position == null) {
+            return executeObject(jsonObject, parent, context);
+        }
         
-        JEVisClass rootClass = _jevis_ds.getJEVisClass(root.getJevisClass());
-        if (rootClass == null) {
-            System.out.println(String.format(
-                    "Error: JEVisClass with the name '%s' not found",
-                    root.getJevisClass()));
-            return;
+        long op = jsonObject.getId();
+        Long done = context._journal == null ? null : context._journal.get(position, op);
+        if (done != null) {
+            JEVisObject jevisObject = done > 0 ? cache().getObject(done) : null;
+            if (done == 0 || jevisObject != null) {
+                if (Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).isLoggable(Level.FINE)) {
+                    Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.FINE, "\tAlready completed: " + position + " " + jsonObject.getName());
+                }
+                if (jevisObject != null) {
+                    // Deferred references were lost with the interrupted run
+                    writeAttributes(jsonObject, jevisObject, context, true);
+                }
+                recordState(jsonObject, parent, jevisObject, true, context);
+                return jevisObject;
+            }
+            // The object was deleted since, process the node again
+        }
+        if (context._state != null && parent != null) {
+            Long unchanged = context._state.getUnchanged(position, parent.getID(), context._references.getMappedIDs());
+            JEVisObject jevisObject = unchanged != null && unchanged > 0 ? cache().getObject(unchanged) : null;
+            if (unchanged != null && (unchanged == 0 || jevisObject != null)) {
+                int nodes = context._state.skip(position, context._references.getMappedIDs());
+                _summary.unchanged(nodes);
+                if (Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).isLoggable(Level.FINE)) {
+                    Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.FINE, String.format("\tUnchanged, skipping %d nodes: %s %s", nodes, position, jsonObject.getName()));
+                }
+                return jevisObject;
+            }
         }
         
-        // Get root-object to create nodes under
-        // Leave ID of root blank if name/jevisClass combination is unique.
-        // Otherwise additionally specify the JEVis-ID
-        JEVisObject rootObj = null;
-        if (root.getId() > 0) {
-            rootObj = _jevis_ds.getObject(root.getId());
-            if (rootObj.getName().equals(root.getName()) &&
-                rootObj.getJEVisClass().getName().equals(root.getJevisClass())) {
-                // Found by ID
-            } else {
-                // Found ID, but name/jevisClass does not match
-                System.out.println(String.format(
-                    "Error: Found ID (%d), but name/jevisClass does not match\n"+
-                    "\t searched for: %s/%s"+
-                    "\t found: %s/%s",
-                    root.getId(), root.getName(), root.getJevisClass(),
-                    rootObj.getName(), rootObj.getJEVisClass().getName()));
+        JEVisObject jevisObject = executeObject(jsonObject, parent, context);
+        // Objects which could not be created and RENAME are tried again
+        boolean completed = jevisObject != null || (op < 0 && op != OPERATIONS.RENAME);
+        if (context._journal != null && completed) {
+            // Written with the next batch, once its samples are committed
+            context._journal.completed(position, op, jevisObject == null ? 0 : jevisObject.getID());
+        }
+        recordState(jsonObject, parent, jevisObject, completed, context);
+        return jevisObject;
+    }
+    
+    /**
+     * Commit the pending samples of the file, then journal the nodes
+     * completed before unless samples failed since the last commit. Nodes
+     * which are not journaled are processed again when resuming.
+     */
+    private void commitSamples(FileContext context) throws JEVisException {
+        if (context._journal == null) {
+            _pool.flush(context);
+            return;
+        }
+        synchronized (context) {
+            List<String> batch = context._journal.takeBatch();
+            _pool.flush(context);
+            long failed = context._failedSamples.get();
+            if (failed != context._journaledFailures) {
+                context._journaledFailures = failed;
+                Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.WARNING,
+                        "Samples could not be committed, not journaling " + batch.size() + " nodes of " + context._jsonFile);
                 return;
             }
-        }
-        for (JEVisObject obj : _jevis_ds.getObjects(rootClass, false)) {
-            if (obj.getName().equals(root.getName())) {
-                
-                rootObj = obj;
-                break;
+            try {
+                context._journal.commit(batch);
+            } catch (IOException ex) {
+                Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.WARNING,
+                        "Could not write the journal of " + context._jsonFile, ex);
             }
         }
-        if (rootObj == null) {
-            System.out.println(String.format(
-                    "Error: Object with specified name/jevisClass '%s/%s' not found",
-                    root.getName(), root.getJevisClass()));
+    }
+    
+    /**
+     * Record a processed node in the state of the file
+     */
+    private static void recordState(JsonObject jsonObject, JEVisObject parent, JEVisObject jevisObject, boolean completed, FileContext context) {
+        if (context._state == null) {
             return;
         }
-        
-        // Pretty-print current JEVis build
-        //System.out.println(gson.toJson(JsonFactory.buildObject(rootObj, true, true, false)));
-        
-        // Create all children under given root-node
-        for (JsonObject child : root.getChildren()) {
-            createObjectFromJSON(child, rootObj);
+        String position = ((StructureNode) jsonObject).getPosition();
+        if (completed && parent != null) {
+            context._state.applied(position, jsonObject.getId(), jevisObject == null ? 0 : jevisObject.getID(),
+                    parent.getID(), ReferenceResolver.collectConsumers(jsonObject));
+        } else {
+            context._state.failed(position);
         }
     }
     
-    private JEVisObject createObjectFromJSON(JsonObject jsonObject, JEVisObject parent) throws JEVisException {
+    /**
+     * Execute the operation of a single JSON node
+     */
+    private JEVisObject executeObject(JsonObject jsonObject, JEVisObject parent, FileContext context) throws JEVisException {
         if (parent == null) {
             //TODO: more verbose
             System.out.println("Error: Need a parent to create object under");
@@ -179,32 +728,21 @@ public class JSON2JEVisStructureCreator {
         long op = jsonObject.getId();
         String name = jsonObject.getName();
         String jevisClass = jsonObject.getJevisClass();
+        // The parent may have been resolved by another session
+        parent = cache().getObject(parent.getID());
         
-        System.out.println(String.format(
-        "JSON-Processing: id/name/jevisClass: '%d/%s/%s'",
-                op, name, jevisClass));
+        boolean trace = Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).isLoggable(Level.FINE);
+        if (trace) {
+            Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.FINE, String.format("JSON-Processing: id/name/jevisClass: '%d/%s/%s'",
+                    op, name, jevisClass));
+        }
         
         // Check if object exists
-        JEVisObject jevisObject = null;
-        for (JEVisObject child : parent.getChildren()) {
-            System.out.println(String.format(
-                "\tComparing to: id/name/jevisClass: '%d/%s/%s'",
-                        child.getID(), child.getName(), child.getJEVisClass().getName()));
-            
-            boolean matching_name = true;
-            boolean matching_class = true;
-            if (name != null && !name.isEmpty()) {
-                matching_name = child.getName().equals(name);
-            }
-            if (jevisClass != null && !jevisClass.isEmpty()) {
-                matching_class = child.getJEVisClass().getName().equals(jevisClass);
-            }
-            
-            if (matching_name && matching_class) {
-                System.out.println("\t Found match");
-                jevisObject = child;
-                break;
-            }
+        long start = System.nanoTime();
+        JEVisObject jevisObject = _childIndex.find(parent, name, jevisClass, cache());
+        _metrics.record(Metrics.Operation.LOOKUP, start);
+        if (trace && jevisObject != null) {
+            Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.FINE, "\t Found match: " + jevisObject.getID());
         }
         
         // Execute specified operation
@@ -215,10 +753,9 @@ public class JSON2JEVisStructureCreator {
         } else if (op == OPERATIONS.DELETE) {
             System.out.println("\tDelete Object: " + name);
             if (jevisObject != null) {
-                deleteObject(jevisObject);
-                
-                // Reprocess to delete all matching objects
-                createObjectFromJSON(jsonObject, parent);
+                // Delete all matching objects in one pass
+                _deleteEngine.delete(_childIndex.findAll(parent, name, jevisClass, cache()), false);
+                jevisObject = null;
             } else {
                 System.out.println("\tObject not found, carry on: " + name);
             }
@@ -226,10 +763,9 @@ public class JSON2JEVisStructureCreator {
         } else if (op == OPERATIONS.DELETE_RECURSIVE) {
             System.out.println("\tDelete Class recursive: " + name);
             if (jevisObject != null) {
-                deleteObjectRec(jevisObject);
-                
-                // Reprocess to delete all matching objects
-                createObjectFromJSON(jsonObject, parent);
+                // Delete all matching objects in one pass
+                _deleteEngine.delete(_childIndex.findAll(parent, name, jevisClass, cache()), true);
+                jevisObject = null;
             } else {
                 System.out.println("\tObject not found, carry on: " + name);
             }
@@ -241,7 +777,7 @@ public class JSON2JEVisStructureCreator {
         } else if (op == OPERATIONS.DELETE_OLD_SAMPLES) {
             System.out.println("\tDelete old samples of Object: " + name);
             if (jevisObject != null) {
-                deleteOldSamples(jevisObject);
+                _retentionEngine.prune(jevisObject, false, retentionOf(jsonObject));
             } else {
                 System.out.println("\tObject not found, carry on: " + name);
             }
@@ -249,7 +785,7 @@ public class JSON2JEVisStructureCreator {
         } else if (op == OPERATIONS.DELETE_OLD_SAMPLES_RECURSIVE) {
             System.out.println("\tDelete old samples of Object and all its children: " + name);
             if (jevisObject != null) {
-                deleteOldSamplesRec(jevisObject);
+                _retentionEngine.prune(jevisObject, true, retentionOf(jsonObject));
             } else {
                 System.out.println("\tObject not found, carry on: " + name);
             }
@@ -259,74 +795,111 @@ public class JSON2JEVisStructureCreator {
         if (createCurrentObject) {
             // New object or object was deleted, create new
             if (jevisObject == null) {
-                System.out.println("\tCreate JEVis-Object: " + name);
-
+                if (trace) {
+                    Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.FINE, "\tCreate JEVis-Object: " + name);
+                }
                 jevisObject = createObject(parent.getID(), jevisClass, name);
+                if (jevisObject != null) {
+                    _childIndex.add(parent, jevisObject);
+                }
             }
-            // OP/IDs > 0 are treated as reference IDs and can be used by '$(REF)<ID>'
-            if (op > 0) {
-                //TODO: what to do if ref-id already set?
-                _mappedIDs.put(op, jevisObject.getID());
-            }
-            // Set/Update attributes
-            for (JsonAttribute att : jsonObject.getAttributes()) {
-                String key = att.getName();
-                String value = att.getLastvalue();
-                Object uploadValue = value;
-                System.out.println(String.format(
-                    "\tProcess Attribute: key/value: '%s/%s'",
-                            key, value));
-                System.out.flush();
-                if (value == null || value.isEmpty())
+            if (jevisObject != null) {
+                // OP/IDs > 0 are treated as reference IDs and can be used by '$(REF)<ID>'
+                if (op > 0) {
+                    //TODO: what to do if ref-id already set?
+                    context._references.put(op, jevisObject.getID());
+                }
+                writeAttributes(jsonObject, jevisObject, context, false);
+            }
+        }
+        return jevisObject;
+    }
+    
+    /**
+     * Set/Update the attributes of an object
+     * 
+     * @param referencesOnly only write the $(REF) values
+     */
+    private void writeAttributes(JsonObject jsonObject, JEVisObject jevisObject, FileContext context, boolean referencesOnly) throws JEVisException {
+        boolean trace = Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).isLoggable(Level.FINE);
+        for (JsonAttribute att : jsonObject.getAttributes()) {
+            String key = att.getName();
+            String value = att.getLastvalue();
+            Object uploadValue = value;
+            if (trace) {
+                Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.FINE, String.format("\tProcess Attribute: key/value: '%s/%s'",
+                        key, value));
+            }
+            if (value == null || value.isEmpty())
+                continue;
+            if (referencesOnly && !value.startsWith(REFERENCE_MARKER))
+                continue;
+            // replace reference-ID with created JEVis-ID
+            if (value.startsWith(REFERENCE_MARKER)) {
+                Long refID = ReferenceResolver.parse(value);
+                if (refID == null) {
+                    _summary.missingReference();
                     continue;
-                // replace reference-ID with created JEVis-ID
-                if (value.startsWith(REFERENCE_MARKER)) {
-                    String refIDStr = value.substring(REFERENCE_MARKER.length());
-                    long refID = Long.valueOf(refIDStr);
-                    //TODO: check if reference ID was set
-                    uploadValue = "" + _mappedIDs.get(refID);
-                } else if (value.startsWith(FILE_MARKER)) {
-                    try {
-                        String fileName = value.substring(FILE_MARKER.length());
-
-                        // Get relative path from json-file
-                        int indexSeperator = _jsonFile.lastIndexOf(File.separator);
-                        String filePath;
-                        if (indexSeperator >= 0) {
-                            filePath = _jsonFile.
-                                substring(0,_jsonFile.lastIndexOf(File.separator));
-                        } else {
-                            filePath = "";
-                        }
-
-                        if (!filePath.isEmpty()) {
-                            fileName = filePath + File.separator + fileName;
-                        }
-
-                        // Read file to upload
-                        File file = new File(fileName);
-                        JEVisFile jfile = new JEVisFileImp(file.getName(), file);
-
-                        uploadValue = jfile;
-                    } catch (IOException ex) {
-                        Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, null, ex);
-                        break;
-                    }
-
                 }
-                if (uploadValue == null) {
-                    System.out.println("\t No value specified, not writing new Attribute");
+                Long mappedID = context._references.resolve(jevisObject.getID(), key, refID);
+                if (mappedID == null) {
+                    // Written once the whole file was processed
                     continue;
                 }
-                writeToJEVis(jevisObject.getID(), key, uploadValue);
+                uploadValue = mappedID.toString();
+            } else if (value.startsWith(SAMPLES_MARKER)) {
+                String fileName = relativeTo(context._jsonFile, value.substring(SAMPLES_MARKER.length()));
+                importSamples(jevisObject, key, new File(fileName));
+                continue;
+            } else if (value.startsWith(FILE_MARKER)) {
+                try {
+                    String fileName = relativeTo(context._jsonFile, value.substring(FILE_MARKER.length()));
+
+                    // Hash file to upload, it is only read if it changed
+                    uploadValue = _fileUploader.prepare(new File(fileName));
+                } catch (IOException ex) {
+                    Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, null, ex);
+                    break;
+                }
+
             }
+            if (uploadValue == null) {
+                System.out.println("\t No value specified, not writing new Attribute");
+                continue;
+            }
+            writeAttribute(_pool.current(), jevisObject, key, uploadValue, context);
         }
-        
-        // Create children from JSON
-        for (JsonObject child : jsonObject.getChildren()) {
-            createObjectFromJSON(child, jevisObject);
+    }
+    
+    /**
+     * @return the path of a file given relative to the json-file
+     */
+    private static String relativeTo(String jsonFile, String fileName) {
+        int indexSeperator = jsonFile.lastIndexOf(File.separator);
+        if (indexSeperator >= 0) {
+            return jsonFile.substring(0, indexSeperator) + File.separator + fileName;
+        }
+        return fileName;
+    }
+    
+    /**
+     * Import the historical samples of an attribute from a CSV or NDJSON file
+     */
+    private void importSamples(JEVisObject jevisObject, String attributeName, File source) throws JEVisException {
+        HandleCache cache = cache();
+        try {
+            JEVisAttribute attribute = cache.getAttribute(jevisObject, attributeName);
+            if (attribute == null) {
+                Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, "Could not found the Attribute with the name:" + attributeName);
+                return;
+            }
+            _sampleImporter.importSamples(attribute, cache.getPrimitiveType(jevisObject, attribute), source);
+        } catch (IOException ex) {
+            Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, "Could not import samples from: " + source, ex);
+        } catch (JEVisException ex) {
+            _pool.rethrowIfDisconnected(ex);
+            Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, null, ex);
         }
-        return jevisObject;
     }
     
      /**
@@ -337,29 +910,34 @@ public class JSON2JEVisStructureCreator {
      * @param newObjectClass The JEVisClass of the new JEVisObject
      * @param newObjectName The name of the new JEVisObject
      */
-    private static JEVisObject createObject(long parentObjectID, String newObjectClass, String newObjectName) {
+    private JEVisObject createObject(long parentObjectID, String newObjectClass, String newObjectName) throws JEVisException {
         JEVisObject newObject = null;
+        long start = System.nanoTime();
         try {
             //Check if the connection is still alive. An JEVisException will be
             //thrown if you use one of the functions and the connection is lost
-            if (_jevis_ds.isConnectionAlive()) {
+            if (_pool.current().getDataSource().isConnectionAlive()) {
 
                 //Get the ParentObject from the JEVis system
-                if (_jevis_ds.getObject(parentObjectID) != null) {
+                JEVisObject parentObject = cache().getObject(parentObjectID);
+                if (parentObject != null) {
 
-                    JEVisObject parentObject = _jevis_ds.getObject(parentObjectID);
                     JEVisClass parentClass = parentObject.getJEVisClass();
 
                     //Get the JEVisClass we want our new JEVisObject to have
-                    if (_jevis_ds.getJEVisClass(newObjectClass) != null) {
-                        JEVisClass newClass = _jevis_ds.getJEVisClass(newObjectClass);
+                    JEVisClass newClass = cache().getJEVisClass(newObjectClass);
+                    if (newClass != null) {
 
                         //Check if the JEVisObject with this class is allowed under a parent of the other Class
                         //it will also check if the JEVisClass is unique and if another object of the Class exist.
                         if (newClass.isAllowedUnder(parentClass)) {
                             newObject = parentObject.buildObject(newObjectName, newClass);
                             newObject.commit();
-                            Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.INFO, "New ID: " + newObject.getID());
+                            cache().putObject(newObject);
+                            _metrics.record(Metrics.Operation.CREATE, start);
+                            if (Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).isLoggable(Level.FINE)) {
+                                Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.FINE, "New ID: " + newObject.getID());
+                            }
                         } else {
                             Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, "Cannot create Object because the parent JEVisClass does not allow the child");
                         }
@@ -370,66 +948,84 @@ public class JSON2JEVisStructureCreator {
                 }
 
             } else {
-                Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, "Connection to the JEVisServer is not alive");
+                // Let the DataSourcePool reconnect and replay
+                throw new JEVisException("Connection to the JEVisServer is not alive", 1);
             }
 
         } catch (JEVisException ex) {
+            _pool.rethrowIfDisconnected(ex);
             Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, null, ex);
         }
         return newObject;
     }
     
     public void deleteObject(JEVisObject jevisObject) throws JEVisException {
-        try {
-            String objName = jevisObject.getName();
-            String className = jevisObject.getJEVisClass().getName();
-            System.out.println(String.format("Delete Object 'obj/class': '%s/%s'",
-                objName, className));
-            
-            // throws NullPointerException if it is an object without class
-            for (JEVisAttribute att : jevisObject.getAttributes()) {
-                att.deleteAllSample();
-            }
-        } catch (NullPointerException e) {}
-        
-        
-        jevisObject.delete();
+        delete(jevisObject.getID(), false);
     }    
     public void deleteObjectRec(JEVisObject jevisObject) throws JEVisException {
-        try {
-            String objName = jevisObject.getName();
-            String className = jevisObject.getJEVisClass().getName();
-            System.out.println(String.format("Delete Object, enter recursion 'obj/class': '%s/%s'",
-                objName, className));
-        } catch (NullPointerException e) {}
-        // Delete children first
-        while (!jevisObject.getChildren().isEmpty()) {
-        //for (JEVisObject child : jevisObject.getChildren()) {
-            JEVisObject child = jevisObject.getChildren().get(0);
-            deleteObjectRec(child);
-        }
-        
-        deleteObject(jevisObject);
+        delete(jevisObject.getID(), true);
     }
     
-    private void deleteOldSamples(JEVisObject jevisObject) throws JEVisException {
-        try {
-            String objName = jevisObject.getName();
-            String className = jevisObject.getJEVisClass().getName();
-            System.out.println(String.format("Delete old Samples from Object 'obj/class': '%s/%s'",
-                objName, className));
-        } catch (NullPointerException e) {}
-        for (JEVisAttribute att : jevisObject.getAttributes()) {
-            JEVisSample latestSample = att.getLatestSample();
-            latestSample.getTimestamp();
-            att.deleteSamplesBetween(DateTime.parse("0"), latestSample.getTimestamp().minus(1));
+    private void delete(final long objectID, final boolean recursive) throws JEVisException {
+        _pool.execute(new DataSourcePool.Work<Void>() {
+            @Override
+            public Void run(DataSourcePool.Session session) throws JEVisException {
+                // Resolved in the session, a replay runs with a new connection
+                JEVisObject object = session.getCache().getObject(objectID);
+                if (object != null) {
+                    _deleteEngine.delete(Collections.singletonList(object), recursive);
+                }
+                return null;
+            }
+        });
+    }
+    
+    /**
+     * Write the deferred $(REF) values of a file in one batch, references
+     * which are still unknown are reported
+     */
+    private void writeDeferred(final FileContext context) throws JEVisException {
+        ReferenceResolver references = context._references;
+        final List<ReferenceResolver.Deferred> writes = new ArrayList<ReferenceResolver.Deferred>();
+        final List<Long> mappedIDs = new ArrayList<Long>();
+        for (ReferenceResolver.Deferred deferred : references.drain()) {
+            Long mappedID = references.get(deferred.getRefID());
+            if (mappedID == null) {
+                Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, String.format(
+                        "Missing reference %s%d for attribute '%s' of object %d in %s",
+                        REFERENCE_MARKER, deferred.getRefID(), deferred.getAttributeName(),
+                        deferred.getObjectID(), context._jsonFile));
+                _summary.missingReference();
+            } else {
+                writes.add(deferred);
+                mappedIDs.add(mappedID);
+            }
         }
+        if (writes.isEmpty()) {
+            return;
+        }
+        _pool.execute(new DataSourcePool.Work<Void>() {
+            @Override
+            public Void run(DataSourcePool.Session session) throws JEVisException {
+                for (int i = 0; i < writes.size(); i++) {
+                    // The object may have been deleted later in the file
+                    JEVisObject object = session.getCache().getObject(writes.get(i).getObjectID());
+                    if (object != null) {
+                        writeAttribute(session, object, writes.get(i).getAttributeName(), mappedIDs.get(i).toString(), context);
+                    }
+                }
+                return null;
+            }
+        });
+        Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.INFO,
+                "Wrote " + writes.size() + " deferred references of " + context._jsonFile);
     }
-    private void deleteOldSamplesRec(JEVisObject jevisObject) throws JEVisException {
-        deleteOldSamples(jevisObject);
-        for (JEVisObject child : jevisObject.getChildren()) {
-            deleteOldSamplesRec(child);
+    
+    private static RetentionPolicy retentionOf(JsonObject jsonObject) {
+        if (jsonObject instanceof StructureNode) {
+            return ((StructureNode) jsonObject).getRetention();
         }
+        return null;
     }
     
     /**
@@ -443,33 +1039,75 @@ public class JSON2JEVisStructureCreator {
      * @param sqlPW MySQL password for the connection
      * @param jevisUser Username of the JEVis user
      * @param jevisPW Password of the JEVis user
+     * @return true if all sessions of the pool could be opened
+     */
+    public boolean connectToJEVis(String sqlServer, String port, String sqlSchema, String sqlUser, String sqlPW, String jevisUser, String jevisPW) {
+        //Create a pool of JEVisDataSources from the MySQL implementation 
+        //JEAPI-SQl. This connection needs an vaild user on the MySQl Server.
+        //Later it will also be possible to use the JEAPI-WS and by this 
+        //using the JEVis webservice (REST) as an endpoint which is much
+        //saver than using a public SQL-port.
+        return connectToJEVis(DataSourcePool.sqlConnector(sqlServer, port, sqlSchema, sqlUser, sqlPW, jevisUser, jevisPW));
+    }
+    
+    /**
+     * Connect to JEVis using another JEVisDataSource implementation
+     * 
+     * @param connector opens the JEVisDataSources of the pool
+     * @return true if all sessions of the pool could be opened
      */
-    public void connectToJEVis(String sqlServer, String port, String sqlSchema, String sqlUser, String sqlPW, String jevisUser, String jevisPW) {
+    public boolean connectToJEVis(DataSourcePool.Connector connector) {
 
         try {
-            //Create an new JEVisDataSource from the MySQL implementation 
-            //JEAPI-SQl. This connection needs an vaild user on the MySQl Server.
-            //Later it will also be possible to use the JEAPI-WS and by this 
-            //using the JEVis webservice (REST) as an endpoint which is much
-            //saver than using a public SQL-port.
-            _jevis_ds = new JEVisDataSourceSQL(sqlServer, port, sqlSchema, sqlUser, sqlPW);
-
-            //authentificate the JEVis user.
-            if (_jevis_ds.connect(jevisUser, jevisPW)) {
-                Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.INFO, "Connection was successful");
-            } else {
-                Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.INFO, "Connection was not successful, exiting app");
-                System.exit(1);
-            }
+            _pool = new DataSourcePool(connector, _metrics);
+            _pool.setWriteThrottle(_writeThrottle);
+            _pool.open(_poolSize);
+            _deleteEngine = new DeleteEngine(_pool, _childIndex, _summary);
+            _retentionEngine = new RetentionEngine(_pool, _poolSize);
+            configureSampleWriters();
+            _metrics.register();
+            Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.INFO, "Connection was successful");
+            return true;
 
         } catch (JEVisException ex) {
             Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, "There was an error while connecting to the JEVis Server");
             Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, null, ex);
-            System.exit(1);
+            return false;
         }
 
     }
     
+    /**
+     * Commit pending samples, close all sessions and write the report
+     */
+    public void disconnect() {
+        if (_pool != null) {
+            _pool.close();
+            _pool = null;
+        }
+        if (_reportFile != null) {
+            try {
+                writeReport(_reportFile);
+            } catch (IOException ex) {
+                Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.WARNING, "Could not write report: " + _reportFile, ex);
+            }
+        }
+    }
+    
+    /**
+     * Write the metrics and the summary of the run as JSON
+     * 
+     * @param reportFile file to write the report to
+     */
+    public void writeReport(String reportFile) throws IOException {
+        Writer out = Files.newBufferedWriter(Paths.get(reportFile), StandardCharsets.UTF_8);
+        try {
+            _metrics.writeReport(out, _summary);
+        } finally {
+            out.close();
+        }
+    }
+    
      /**
      *
      * set a node attribute 
@@ -479,54 +1117,149 @@ public class JSON2JEVisStructureCreator {
      * @param value and its value
      *
      */
-    public static void writeToJEVis(long objectID, String attributeName, Object value ) {
-        try {
-            //Check if the connection is still alive. An JEVisException will be
-            //thrown if you use one of the functions and the connection is lost
-            if (_jevis_ds.isConnectionAlive()) {
-
+    public void writeToJEVis(final long objectID, final String attributeName, final Object value) throws JEVisException {
+        _pool.execute(new DataSourcePool.Work<Void>() {
+            @Override
+            public Void run(DataSourcePool.Session session) throws JEVisException {
                 //Get the JEVisObject with the given ID. You can get the uniqe
                 //ID with the help of JEConfig.
-                if (_jevis_ds.getObject(objectID) != null) {
-                    JEVisObject myObject = _jevis_ds.getObject(objectID);
-                    Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.INFO, "JEVisObject: " + myObject);
-
-                    //Get the JEVisAttribute by its unique identifier.
-                    if (myObject.getAttribute(attributeName) != null) {
-                        JEVisAttribute attribute = myObject.getAttribute(attributeName);
-                        Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.INFO, "JEVisAttribute: " + attribute);
+                JEVisObject myObject = session.getCache().getObject(objectID);
+                if (myObject != null) {
+                    writeToJEVis(myObject, attributeName, value);
+                } else {
+                    Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, "Could not found the Object with the id:" + objectID);
+                }
+                return null;
+            }
+        });
+    }
+    
+     /**
+     *
+     * set a node attribute 
+     *
+     * @param myObject the JEVisObject to write to, outside of work it is
+     * resolved again by its ID in the session used
+     * @param attributeName unique name of the Attribute under this Object
+     * @param value and its value
+     *
+     */
+    public void writeToJEVis(final JEVisObject myObject, final String attributeName, final Object value) throws JEVisException {
+        if (_pool.isExecuting()) {
+            // Called from work, the handle belongs to its session
+            writeAttribute(_pool.current(), myObject, attributeName, value, null);
+            return;
+        }
+        writeToJEVis(myObject.getID(), attributeName, value);
+    }
+    
+    /**
+     * @param owner owner of the written samples or null
+     */
+    private void writeAttribute(DataSourcePool.Session session, JEVisObject myObject, String attributeName, Object value, SampleWriter.Owner owner) throws JEVisException {
+        HandleCache cache = session.getCache();
+        SampleWriter sampleWriter = session.getSampleWriter();
+        long start = System.nanoTime();
+        try {
+            //An JEVisException will be thrown if you use one of the functions
+            //and the connection is lost, the DataSourcePool reconnects and
+            //replays the whole unit of work
+            if (Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).isLoggable(Level.FINE)) {
+                Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.FINE, "JEVisObject: " + myObject);
+            }
 
-                        if (attribute.getType().getPrimitiveType() == PrimitiveType.BOOLEAN) {
-                            if (value instanceof String) {
-                                String str = (String)value;
-                                Boolean bool;
-                                if (str.equals("1"))
-                                    bool = true;
-                                else
-                                    bool = Boolean.valueOf((String)value);
-                                
-                                value = bool;
-                            }
-                        }
-                        //Now we let the Attribute creates an JEVisSample,an JEVisSample allways need an Timestamp and an value.
-                        JEVisSample newSample = attribute.buildSample(null, value);
-                        //Until now we created the sample only localy and we have to commit it to the JEVis Server.
-                        newSample.commit();
+            //Get the JEVisAttribute by its unique identifier.
+            JEVisAttribute attribute = cache.getAttribute(myObject, attributeName);
+            if (attribute != null) {
+                if (Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).isLoggable(Level.FINE)) {
+                    Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.FINE, "JEVisAttribute: " + attribute);
+                }
 
-                        //TODO: we need an example for attribute.addSamples(listOfSamples); function. This function allows to commit a bunch of sample at once
-                    } else {
-                        Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, "Could not found the Attribute with the name:" + attributeName);
+                int primitiveType = cache.getPrimitiveType(myObject, attribute);
+                if (primitiveType == PrimitiveType.BOOLEAN) {
+                    if (value instanceof String) {
+                        value = toBoolean((String) value);
                     }
-                } else {
-                    Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, "Could not found the Object with the id:" + objectID);
                 }
+                // Only write if the value differs from the latest sample
+                JEVisSample latestSample = sampleWriter.getLastPending(attribute);
+                if (latestSample == null) {
+                    latestSample = attribute.getLatestSample();
+                }
+                if (value instanceof FileUploader.FileUpload) {
+                    FileUploader.FileUpload upload = (FileUploader.FileUpload) value;
+                    if (_fileUploader.isUploaded(latestSample, upload)) {
+                        _summary.skipped();
+                        return;
+                    }
+                    try {
+                        JEVisSample newSample = attribute.buildSample(null, _fileUploader.load(upload), upload.getNote());
+                        sampleWriter.add(owner, attribute, newSample);
+                        // Do not keep the file content in the batch
+                        sampleWriter.flush(owner);
+                        _summary.written();
+                    } catch (IOException ex) {
+                        Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, "Could not read file: " + upload.getFile(), ex);
+                    }
+                    return;
+                }
+                if (isUnchanged(primitiveType, latestSample, value)) {
+                    _summary.skipped();
+                    return;
+                }
+                
+                //Now we let the Attribute creates an JEVisSample,an JEVisSample allways need an Timestamp and an value.
+                JEVisSample newSample = attribute.buildSample(null, value);
+                //Until now we created the sample only localy, the SampleWriter
+                //commits it together with others using attribute.addSamples()
+                sampleWriter.add(owner, attribute, newSample);
+                _summary.written();
             } else {
-                Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, "Connection to the JEVisServer is not alive");
-                //TODO: the programm could now retry to connect,
-                //We dont have to do the isConnectionAlive() but use the JEVisException to handle this problem.
+                Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, "Could not found the Attribute with the name:" + attributeName);
             }
         } catch (JEVisException ex) {
+            _pool.rethrowIfDisconnected(ex);
             Logger.getLogger(JSON2JEVisStructureCreator.class.getName()).log(Level.SEVERE, null, ex);
+        } finally {
+            _metrics.record(Metrics.Operation.ATTRIBUTE_WRITE, start);
+        }
+    }
+    
+    /**
+     * Check if a value equals the value of the latest sample
+     * 
+     * @param primitiveType primitive type of the attribute
+     * @param latestSample latest sample of the attribute, may be null
+     * @param value value after reference substitution and boolean coercion
+     */
+    static boolean isUnchanged(int primitiveType, JEVisSample latestSample, Object value) throws JEVisException {
+        if (latestSample == null) {
+            return false;
+        }
+        String latest = latestSample.getValueAsString();
+        if (latest == null) {
+            return false;
+        }
+        if (primitiveType == PrimitiveType.BOOLEAN) {
+            // Stored values may be "1" as well
+            return toBoolean(latest).equals(value instanceof String ? toBoolean((String) value) : value);
+        } else if (primitiveType == PrimitiveType.DOUBLE || primitiveType == PrimitiveType.LONG) {
+            try {
+                return Double.parseDouble(latest) == Double.parseDouble(value.toString());
+            } catch (NumberFormatException ex) {
+                // compare as string
+            }
+        }
+        return latest.equals(value.toString());
+    }
+    
+    /**
+     * @return true for "1" and "true", ignoring case
+     */
+    private static Boolean toBoolean(String value) {
+        if (value.equals("1")) {
+            return true;
         }
+        return Boolean.valueOf(value);
     }
 }
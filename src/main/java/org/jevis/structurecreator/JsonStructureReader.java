@@ -0,0 +1,366 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jevis.api.JEVisException;
+import org.jevis.commons.json.JsonAttribute;
+import org.jevis.commons.json.JsonObject;
+
+/**
+ * Streams a structure JSON-file node by node instead of loading the whole
+ * tree into memory.
+ *
+ * Every node is handed to the NodeHandler as a StructureNode as soon as its
+ * header (id/name/jevisclass/attributes/path/retention) has been read. Its
+ * children are then streamed depth-first and the node is released once its
+ * subtree is done, so the memory needed only depends on the depth of the
+ * tree.
+ *
+ * Header fields have to be written before the "children" array, fields
+ * following it are ignored.
+ *
+ * Subtrees declared in the "templates" field of a node can be used by
+ * name in any later node. A node using a template is replaced by the
+ * template, with ${name} in it substituted by the given "params" and, for a
+ * "repeat" range, the index:
+ * <pre>
+ * "templates": { "Meter": { "id": "100${i}", "name": "Meter ${i} ${building}", ... } }
+ * { "template": "Meter", "params": { "building": "A" }, "repeat": { "var": "i", "from": 1, "to": 500 } }
+ * </pre>
+ * Every instance is substituted and streamed on its own, so only the
+ * templates are kept in memory. Repeated instances get the position of the
+ * using node followed by '.' and the index of the instance.
+ */
+public class JsonStructureReader implements Closeable {
+
+    private static final String KEY_ID = "id";
+    private static final String KEY_NAME = "name";
+    private static final String KEY_JEVISCLASS = "jevisclass";
+    private static final String KEY_ATTRIBUTES = "attributes";
+    private static final String KEY_CHILDREN = "children";
+    private static final String KEY_RETENTION = "retention";
+    private static final String KEY_PATH = "path";
+    private static final String KEY_TEMPLATES = "templates";
+    private static final String KEY_TEMPLATE = "template";
+    private static final String KEY_PARAMS = "params";
+    private static final String KEY_REPEAT = "repeat";
+    private static final int MAX_TEMPLATE_DEPTH = 16;
+
+    /**
+     * Range of a "repeat" field
+     */
+    private static class Repeat {
+
+        private String var = "i";
+        private long from = 1;
+        private Long to;
+        private long step = 1;
+    }
+
+    /**
+     * Callback for streamed nodes
+     *
+     * @param <T> context handed from a parent to its children
+     */
+    public interface NodeHandler<T> {
+
+        /**
+         * Called as soon as the header of a node was read. The node does not
+         * contain any children.
+         *
+         * @param node header of the node
+         * @param parent context returned for the parent node
+         * @return context to pass to the children of this node
+         */
+        T enter(JsonObject node, T parent) throws JEVisException;
+
+        /**
+         * Called after the whole subtree of a node was processed.
+         *
+         * @param node header of the node
+         * @param context context returned by enter
+         */
+        void leave(JsonObject node, T context) throws JEVisException;
+    }
+
+    private final JsonReader _reader;
+    private final Gson _gson;
+    // reader the handler was given to, holds templates and skip requests
+    private final JsonStructureReader _owner;
+    private final int _templateDepth;
+    private final Map<String, String> _templates;
+    // true if the last read header stopped at the "children" array
+    private boolean _atChildren;
+    private boolean _skipChildren;
+    // template usage of the last read header
+    private String _template;
+    private Map<String, String> _params;
+    private Repeat _repeat;
+
+    public JsonStructureReader(Reader in) {
+        this._reader = new JsonReader(in);
+        this._gson = new Gson();
+        this._owner = this;
+        this._templateDepth = 0;
+        this._templates = new HashMap<String, String>();
+    }
+
+    /**
+     * Reader for one substituted template instance
+     */
+    private JsonStructureReader(String instance, JsonStructureReader parent) {
+        this._reader = new JsonReader(new StringReader(instance));
+        this._gson = parent._gson;
+        this._owner = parent._owner;
+        this._templateDepth = parent._templateDepth + 1;
+        this._templates = parent._templates;
+    }
+
+    /**
+     * Read the header of the root node. Afterwards either readChildren or
+     * skipChildren has to be called.
+     *
+     * @return the root node without children
+     */
+    public JsonObject readRoot() throws IOException {
+        return readHeader("");
+    }
+
+    /**
+     * Stream all children of the root node to the given handler
+     *
+     * @param handler handler getting all nodes below the root
+     * @param root context of the root node
+     */
+    public <T> void readChildren(NodeHandler<T> handler, T root) throws IOException, JEVisException {
+        streamChildren(handler, root, "");
+        finishObject();
+    }
+
+    /**
+     * Skip all children of the root node without processing them
+     */
+    public void skipChildren() throws IOException {
+        if (_atChildren) {
+            _reader.skipValue();
+            _atChildren = false;
+        }
+        finishObject();
+    }
+
+    /**
+     * Skip the children of the node currently entered, may only be called
+     * from NodeHandler.enter. leave is still called for the node.
+     */
+    public void skipCurrentChildren() {
+        _skipChildren = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        _reader.close();
+    }
+
+    private <T> void readNode(NodeHandler<T> handler, T parent, String position) throws IOException, JEVisException {
+        StructureNode node = readHeader(position);
+        if (_template != null) {
+            expand(handler, parent, position);
+            return;
+        }
+        T context = handler.enter(node, parent);
+        if (_owner._skipChildren) {
+            _owner._skipChildren = false;
+            skipChildren();
+            handler.leave(node, context);
+            return;
+        }
+        streamChildren(handler, context, position);
+        finishObject();
+        handler.leave(node, context);
+    }
+
+    private <T> void streamChildren(NodeHandler<T> handler, T context, String position) throws IOException, JEVisException {
+        if (!_atChildren) {
+            return;
+        }
+        _atChildren = false;
+        if (_reader.peek() == JsonToken.NULL) {
+            _reader.nextNull();
+            return;
+        }
+        _reader.beginArray();
+        String prefix = position.isEmpty() ? "" : position + "/";
+        for (int i = 0; _reader.hasNext(); i++) {
+            readNode(handler, context, prefix + i);
+        }
+        _reader.endArray();
+    }
+
+    /**
+     * Stream the instances of the template used by the last read node
+     */
+    private <T> void expand(NodeHandler<T> handler, T parent, String position) throws IOException, JEVisException {
+        String template = _templates.get(_template);
+        if (template == null) {
+            throw new IOException("Unknown template '" + _template + "' at " + _reader.getPath());
+        }
+        if (_templateDepth >= MAX_TEMPLATE_DEPTH) {
+            throw new IOException("Templates nested too deep at template '" + _template + "'");
+        }
+        Map<String, String> params = _params;
+        Repeat repeat = _repeat;
+        if (_atChildren) {
+            Logger.getLogger(JsonStructureReader.class.getName()).log(Level.WARNING,
+                    "Ignoring children of node using template '" + _template + "' at " + _reader.getPath());
+            _reader.skipValue();
+            _atChildren = false;
+        }
+        finishObject();
+
+        if (repeat == null) {
+            new JsonStructureReader(substitute(template, params), this).readNode(handler, parent, position);
+            return;
+        }
+        if (repeat.to == null || repeat.step <= 0) {
+            throw new IOException("Repeat of template '" + _template + "' needs \"to\" and a positive \"step\"");
+        }
+        int index = 0;
+        for (long i = repeat.from; i <= repeat.to; i += repeat.step) {
+            params.put(repeat.var, Long.toString(i));
+            new JsonStructureReader(substitute(template, params), this).readNode(handler, parent, position + "." + index++);
+        }
+    }
+
+    /**
+     * Replace ${name} in a template by the value of the parameter, unknown
+     * names are kept
+     */
+    private static String substitute(String template, Map<String, String> params) {
+        StringBuilder sb = new StringBuilder(template.length());
+        int last = 0;
+        for (int start = template.indexOf("${"); start >= 0; start = template.indexOf("${", last)) {
+            int end = template.indexOf('}', start);
+            if (end < 0) {
+                break;
+            }
+            String value = params.get(template.substring(start + 2, end));
+            sb.append(template, last, start);
+            if (value == null) {
+                sb.append(template, start, end + 1);
+            } else {
+                // the template is JSON, values end up in strings
+                sb.append(value.replace("\\", "\\\\").replace("\"", "\\\""));
+            }
+            last = end + 1;
+        }
+        sb.append(template, last, template.length());
+        return sb.toString();
+    }
+
+    /**
+     * Reads all fields of the current object up to the "children" array
+     */
+    private StructureNode readHeader(String position) throws IOException {
+        _template = null;
+        _params = new HashMap<String, String>();
+        _repeat = null;
+        StructureNode node = new StructureNode();
+        node.setPosition(position);
+        node.setAttributes(new ArrayList<JsonAttribute>());
+        node.setChildren(new ArrayList<JsonObject>());
+
+        _atChildren = false;
+        _reader.beginObject();
+        while (_reader.hasNext()) {
+            String key = _reader.nextName();
+            if (_reader.peek() == JsonToken.NULL) {
+                _reader.nextNull();
+                continue;
+            }
+            if (key.equals(KEY_CHILDREN)) {
+                _atChildren = true;
+                break;
+            } else if (key.equals(KEY_ID)) {
+                node.setId(_reader.nextLong());
+            } else if (key.equals(KEY_NAME)) {
+                node.setName(_reader.nextString());
+            } else if (key.equals(KEY_JEVISCLASS)) {
+                node.setJevisClass(_reader.nextString());
+            } else if (key.equals(KEY_ATTRIBUTES)) {
+                _reader.beginArray();
+                while (_reader.hasNext()) {
+                    JsonAttribute att = _gson.fromJson(_reader, JsonAttribute.class);
+                    node.getAttributes().add(att);
+                }
+                _reader.endArray();
+            } else if (key.equals(KEY_PATH)) {
+                node.setPath(_reader.nextString());
+            } else if (key.equals(KEY_RETENTION)) {
+                node.setRetention(_gson.<RetentionPolicy>fromJson(_reader, RetentionPolicy.class));
+            } else if (key.equals(KEY_TEMPLATES)) {
+                _reader.beginObject();
+                while (_reader.hasNext()) {
+                    String name = _reader.nextName();
+                    _templates.put(name, _gson.fromJson(_reader, JsonElement.class).toString());
+                }
+                _reader.endObject();
+            } else if (key.equals(KEY_TEMPLATE)) {
+                _template = _reader.nextString();
+            } else if (key.equals(KEY_PARAMS)) {
+                _reader.beginObject();
+                while (_reader.hasNext()) {
+                    String name = _reader.nextName();
+                    _params.put(name, _reader.nextString());
+                }
+                _reader.endObject();
+            } else if (key.equals(KEY_REPEAT)) {
+                _repeat = _gson.fromJson(_reader, Repeat.class);
+            } else {
+                _reader.skipValue();
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Skips the fields following the "children" array and closes the object
+     */
+    private void finishObject() throws IOException {
+        while (_reader.hasNext()) {
+            String key = _reader.nextName();
+            Logger.getLogger(JsonStructureReader.class.getName()).log(Level.WARNING,
+                    "Ignoring field '" + key + "' after children at " + _reader.getPath());
+            _reader.skipValue();
+        }
+        _reader.endObject();
+    }
+}
@@ -0,0 +1,264 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency histograms for the operations of the creator and
+ * every JEVis API call.
+ *
+ * The metrics are available over JMX while the creator runs and can be
+ * written as a JSON report at the end of a run.
+ */
+public class Metrics implements MetricsMXBean {
+
+    public static final String OBJECT_NAME = "org.jevis.structurecreator:type=Metrics";
+
+    /**
+     * Operations of the creator
+     */
+    public enum Operation {
+        CREATE, LOOKUP, ATTRIBUTE_WRITE, SAMPLE_COMMIT, DELETE, SAMPLE_PRUNE, SAMPLE_IMPORT, EXPORT, THROTTLE_WAIT
+    }
+
+    /**
+     * Latency histogram with power-of-two microsecond buckets
+     */
+    public static class Histogram {
+
+        private static final int BUCKETS = 40;
+        private final AtomicLongArray _buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong _count = new AtomicLong();
+        private final AtomicLong _totalNanos = new AtomicLong();
+        private final AtomicLong _maxNanos = new AtomicLong();
+
+        public void record(long nanos) {
+            long micros = Math.max(1, nanos / 1000);
+            int bucket = Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+            _buckets.incrementAndGet(bucket);
+            _count.incrementAndGet();
+            _totalNanos.addAndGet(nanos);
+            long max = _maxNanos.get();
+            while (nanos > max && !_maxNanos.compareAndSet(max, nanos)) {
+                max = _maxNanos.get();
+            }
+        }
+
+        public long getCount() {
+            return _count.get();
+        }
+
+        public double getTotalMillis() {
+            return _totalNanos.get() / 1e6;
+        }
+
+        public double getMaxMillis() {
+            return _maxNanos.get() / 1e6;
+        }
+
+        /**
+         * @param quantile between 0 and 1
+         * @return upper bound of the bucket holding the quantile in
+         * milliseconds
+         */
+        public double getPercentileMillis(double quantile) {
+            long count = _count.get();
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += _buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min((1L << (i + 1)) / 1000.0, getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+    }
+
+    private final ConcurrentMap<Operation, Histogram> _operations = new ConcurrentHashMap<Operation, Histogram>();
+    private final ConcurrentMap<String, Histogram> _calls = new ConcurrentHashMap<String, Histogram>();
+    private final long _start = System.currentTimeMillis();
+    private volatile WriteThrottle _throttle;
+
+    public Metrics() {
+        for (Operation op : Operation.values()) {
+            _operations.put(op, new Histogram());
+        }
+    }
+
+    /**
+     * Record an operation started at the given System.nanoTime()
+     */
+    public void record(Operation op, long startNanos) {
+        _operations.get(op).record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @param throttle throttle whose rate and queue depth are published, or
+     * null
+     */
+    public void setWriteThrottle(WriteThrottle throttle) {
+        this._throttle = throttle;
+    }
+
+    /**
+     * Record a call of the JEVis API
+     */
+    public void recordCall(String call, long nanos) {
+        Histogram histogram = _calls.get(call);
+        if (histogram == null) {
+            _calls.putIfAbsent(call, new Histogram());
+            histogram = _calls.get(call);
+        }
+        histogram.record(nanos);
+    }
+
+    public Histogram getOperation(Operation op) {
+        return _operations.get(op);
+    }
+
+    @Override
+    public Map<String, Long> getOperationCounts() {
+        Map<String, Long> counts = new TreeMap<String, Long>();
+        for (Map.Entry<Operation, Histogram> entry : _operations.entrySet()) {
+            counts.put(entry.getKey().name(), entry.getValue().getCount());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getDataSourceCallCounts() {
+        Map<String, Long> counts = new TreeMap<String, Long>();
+        for (Map.Entry<String, Histogram> entry : _calls.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().getCount());
+        }
+        return counts;
+    }
+
+    @Override
+    public long getDataSourceCalls() {
+        long calls = 0;
+        for (Histogram histogram : _calls.values()) {
+            calls += histogram.getCount();
+        }
+        return calls;
+    }
+
+    @Override
+    public double getWriteRate() {
+        WriteThrottle throttle = _throttle;
+        return throttle == null ? -1 : throttle.getRate();
+    }
+
+    @Override
+    public int getWriteQueueDepth() {
+        WriteThrottle throttle = _throttle;
+        return throttle == null ? 0 : throttle.getQueueDepth();
+    }
+
+    /**
+     * Make the metrics available over JMX
+     */
+    public void register() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            }
+        } catch (JMException ex) {
+            Logger.getLogger(Metrics.class.getName()).log(Level.WARNING, "Could not register metrics MBean", ex);
+        }
+    }
+
+    /**
+     * Write all metrics as JSON
+     *
+     * @param out writer to write the report to
+     * @param summary counts of the run
+     */
+    public void writeReport(Writer out, RunSummary summary) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.setIndent("  ");
+        writer.beginObject();
+        writer.name("durationMillis").value(System.currentTimeMillis() - _start);
+        writer.name("summary").beginObject();
+        writer.name("attributesWritten").value(summary.getWritten());
+        writer.name("attributesSkipped").value(summary.getSkipped());
+        writer.name("objectsDeleted").value(summary.getDeleted());
+        writer.name("missingReferences").value(summary.getMissingReferences());
+        writer.name("unchangedSubtrees").value(summary.getUnchangedSubtrees());
+        writer.name("unchangedNodes").value(summary.getUnchangedNodes());
+        writer.name("samplesImported").value(summary.getImported());
+        writer.endObject();
+
+        WriteThrottle throttle = _throttle;
+        if (throttle != null) {
+            writer.name("writeThrottle").beginObject();
+            writer.name("rate").value(throttle.getRate());
+            writer.name("maxRate").value(throttle.getMaxRate());
+            writer.name("queueDepth").value(throttle.getQueueDepth());
+            writer.name("maxQueueDepth").value(throttle.getMaxQueueDepth());
+            writer.name("waitMillis").value(throttle.getWaitMillis());
+            writer.endObject();
+        }
+
+        writer.name("operations").beginObject();
+        for (Map.Entry<Operation, Histogram> entry : _operations.entrySet()) {
+            writeHistogram(writer, entry.getKey().name(), entry.getValue());
+        }
+        writer.endObject();
+
+        writer.name("dataSourceCalls").beginObject();
+        for (Map.Entry<String, Histogram> entry : new TreeMap<String, Histogram>(_calls).entrySet()) {
+            writeHistogram(writer, entry.getKey(), entry.getValue());
+        }
+        writer.endObject();
+        writer.endObject();
+        writer.flush();
+    }
+
+    private static void writeHistogram(JsonWriter writer, String name, Histogram histogram) throws IOException {
+        writer.name(name).beginObject();
+        writer.name("count").value(histogram.getCount());
+        writer.name("totalMillis").value(histogram.getTotalMillis());
+        writer.name("p50Millis").value(histogram.getPercentileMillis(0.50));
+        writer.name("p95Millis").value(histogram.getPercentileMillis(0.95));
+        writer.name("p99Millis").value(histogram.getPercentileMillis(0.99));
+        writer.name("maxMillis").value(histogram.getMaxMillis());
+        writer.endObject();
+    }
+}
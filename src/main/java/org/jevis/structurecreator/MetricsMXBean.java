@@ -0,0 +1,54 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.util.Map;
+
+/**
+ * JMX view of the Metrics of a running creator
+ */
+public interface MetricsMXBean {
+
+    /**
+     * @return number of executed operations per operation type
+     */
+    Map<String, Long> getOperationCounts();
+
+    /**
+     * @return number of calls per JEVis API method
+     */
+    Map<String, Long> getDataSourceCallCounts();
+
+    /**
+     * @return total number of JEVis API calls
+     */
+    long getDataSourceCalls();
+
+    /**
+     * @return writes per second currently allowed by the write throttle, -1
+     * if writes are not throttled
+     */
+    double getWriteRate();
+
+    /**
+     * @return number of writes waiting for the write throttle
+     */
+    int getWriteQueueDepth();
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jevis.commons.json.JsonAttribute;
+import org.jevis.commons.json.JsonObject;
+
+/**
+ * Resolves the $(REF) values of one JSON-file.
+ *
+ * A value referring to an object which was already created is resolved
+ * right away. All other values are deferred until the whole file was
+ * processed, so a reference may point to a node later in the file, and are
+ * then written together in one batch. References which are still unknown
+ * at that point are reported as errors and not written. Every file has its
+ * own resolver, reference IDs of one file never resolve to objects created
+ * by another file.
+ */
+public class ReferenceResolver {
+
+    /**
+     * An attribute write waiting for a referenced object
+     */
+    public static class Deferred {
+
+        private final long _objectID;
+        private final String _attributeName;
+        private final long _refID;
+
+        Deferred(long objectID, String attributeName, long refID) {
+            this._objectID = objectID;
+            this._attributeName = attributeName;
+            this._refID = refID;
+        }
+
+        public long getObjectID() {
+            return _objectID;
+        }
+
+        public String getAttributeName() {
+            return _attributeName;
+        }
+
+        public long getRefID() {
+            return _refID;
+        }
+    }
+
+    // reference IDs mapped to the created JEVis IDs
+    private final Map<Long, Long> _mappedIDs = new ConcurrentHashMap<Long, Long>();
+    private final List<Deferred> _deferred = new ArrayList<Deferred>();
+
+    /**
+     * @return the reference ID of a $(REF) value or null if the value is no
+     * valid reference
+     */
+    public static Long parse(String value) {
+        if (value == null || !value.startsWith(JSON2JEVisStructureCreator.REFERENCE_MARKER)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.substring(JSON2JEVisStructureCreator.REFERENCE_MARKER.length()));
+        } catch (NumberFormatException ex) {
+            Logger.getLogger(ReferenceResolver.class.getName()).log(Level.SEVERE,
+                    "Invalid reference: " + value);
+            return null;
+        }
+    }
+
+    /**
+     * Collect the valid reference IDs used by the attributes of a node
+     */
+    public static Set<Long> collectConsumers(JsonObject node) {
+        Set<Long> consumers = new HashSet<Long>();
+        for (JsonAttribute att : node.getAttributes()) {
+            String value = att.getLastvalue();
+            if (value != null && value.startsWith(JSON2JEVisStructureCreator.REFERENCE_MARKER)) {
+                try {
+                    consumers.add(Long.valueOf(value.substring(JSON2JEVisStructureCreator.REFERENCE_MARKER.length())));
+                } catch (NumberFormatException ex) {
+                    // reported when the attribute is written
+                }
+            }
+        }
+        return consumers;
+    }
+
+    /**
+     * Map a reference ID to the JEVis ID of the object created for it
+     */
+    public void put(long refID, long objectID) {
+        _mappedIDs.put(refID, objectID);
+    }
+
+    /**
+     * @param mappedIDs reference IDs mapped to JEVis IDs, e.g. restored from
+     * a journal
+     */
+    public void putAll(Map<Long, Long> mappedIDs) {
+        _mappedIDs.putAll(mappedIDs);
+    }
+
+    /**
+     * @return the live map of reference IDs to JEVis IDs of this file
+     */
+    public Map<Long, Long> getMappedIDs() {
+        return _mappedIDs;
+    }
+
+    /**
+     * Resolve a reference or defer the write of the attribute
+     *
+     * @return the JEVis ID of the referenced object or null if the write was
+     * deferred
+     */
+    public Long resolve(long objectID, String attributeName, long refID) {
+        Long id = _mappedIDs.get(refID);
+        if (id == null) {
+            synchronized (_deferred) {
+                _deferred.add(new Deferred(objectID, attributeName, refID));
+            }
+        }
+        return id;
+    }
+
+    /**
+     * @return the JEVis ID of the referenced object or null if it is unknown
+     */
+    public Long get(long refID) {
+        return _mappedIDs.get(refID);
+    }
+
+    /**
+     * @return all deferred writes, which are removed from the resolver
+     */
+    public List<Deferred> drain() {
+        synchronized (_deferred) {
+            List<Deferred> deferred = new ArrayList<Deferred>(_deferred);
+            _deferred.clear();
+            return deferred;
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jevis.api.JEVisAttribute;
+import org.jevis.api.JEVisClass;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisObject;
+import org.jevis.api.JEVisSample;
+import org.joda.time.DateTime;
+
+/**
+ * Deletes old samples of objects according to a RetentionPolicy.
+ *
+ * The attributes of the objects are listed and then pruned in parallel by
+ * the calling thread and workers for the idle sessions of the
+ * DataSourcePool. Attributes without
+ * samples are skipped using the timestamps already loaded with the
+ * attribute. Samples are only read where the policy needs them, in time
+ * windows, so at most one window of samples per attribute is held in
+ * memory.
+ */
+public class RetentionEngine {
+
+    public static final long DEFAULT_WINDOW = 24 * 60 * 60 * 1000L;
+    private static final DateTime BEGIN = new DateTime(0);
+
+    private final DataSourcePool _pool;
+    private final int _threads;
+    private long _window = DEFAULT_WINDOW;
+
+    /**
+     * @param pool pool to check out sessions from
+     * @param threads maximum number of threads, including the calling one
+     */
+    public RetentionEngine(DataSourcePool pool, int threads) {
+        this._pool = pool;
+        this._threads = threads;
+    }
+
+    /**
+     * @param window milliseconds of samples read at once
+     */
+    public void setWindow(long window) {
+        this._window = Math.max(1, window);
+    }
+
+    /**
+     * Prune the samples of an object, has to be called with a session checked
+     * out.
+     *
+     * @param object object to prune
+     * @param recursive also prune all children
+     * @param policy samples to keep, null keeps only the latest sample
+     */
+    public void prune(JEVisObject object, boolean recursive, final RetentionPolicy policy) throws JEVisException {
+        final RetentionPolicy retention = policy == null ? new RetentionPolicy() : policy;
+        DataSourcePool.Session session = _pool.current();
+        // Pending samples would not be covered by the policy
+        session.getSampleWriter().flush();
+        long start = System.currentTimeMillis();
+        final AtomicLong prunedAttributes = new AtomicLong();
+        final AtomicLong deletedSamples = new AtomicLong();
+
+        List<Long> objects = recursive ? subtree(object, session.getCache()) : Collections.singletonList(object.getID());
+
+        // List the attributes with samples
+        List<Callable<List<String[]>>> listTasks = new ArrayList<Callable<List<String[]>>>();
+        for (final Long id : objects) {
+            listTasks.add(new Callable<List<String[]>>() {
+                @Override
+                public List<String[]> call() throws JEVisException {
+                    return listAttributes(id);
+                }
+            });
+        }
+        List<Callable<Void>> pruneTasks = new ArrayList<Callable<Void>>();
+        for (List<String[]> attributes : run(listTasks)) {
+            for (final String[] att : attributes) {
+                pruneTasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws JEVisException {
+                        if (pruneAttribute(Long.valueOf(att[0]), att[1], retention, deletedSamples)) {
+                            prunedAttributes.incrementAndGet();
+                        }
+                        return null;
+                    }
+                });
+            }
+        }
+        run(pruneTasks);
+
+        long duration = Math.max(1, System.currentTimeMillis() - start);
+        if (retention.getOnePer() > 0) {
+            Logger.getLogger(RetentionEngine.class.getName()).log(Level.INFO, String.format(
+                    "Pruned %d attributes of %d objects (%s): %d samples deleted in %d ms (%.1f samples/s)",
+                    prunedAttributes.get(), objects.size(), retention, deletedSamples.get(),
+                    duration, deletedSamples.get() * 1000.0 / duration));
+        } else {
+            // The samples are deleted without reading them, so only the attributes are counted
+            Logger.getLogger(RetentionEngine.class.getName()).log(Level.INFO, String.format(
+                    "Pruned %d attributes of %d objects (%s) in %d ms (%.1f attributes/s)",
+                    prunedAttributes.get(), objects.size(), retention,
+                    duration, prunedAttributes.get() * 1000.0 / duration));
+        }
+    }
+
+    /**
+     * Run the tasks in the calling thread, which keeps its session, with the
+     * help of a worker for every idle session. A worker only runs a task if
+     * it got an idle session without waiting, otherwise it hands the task
+     * back and stops. So no worker waits for a session held by a thread
+     * which itself waits for its workers.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<T> run(final List<Callable<T>> tasks) throws JEVisException {
+        final Object[] results = new Object[tasks.size()];
+        final Queue<Integer> open = new ConcurrentLinkedQueue<Integer>();
+        for (int i = 0; i < tasks.size(); i++) {
+            open.add(i);
+        }
+        int helpers = Math.min(_threads - 1, Math.min(tasks.size() - 1, _pool.getIdleCount()));
+        ExecutorService executor = helpers > 0 ? Executors.newFixedThreadPool(helpers) : null;
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int i = 0; i < helpers; i++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws JEVisException {
+                        Integer index;
+                        while ((index = open.poll()) != null) {
+                            final int task = index;
+                            boolean ran = _pool.tryExecute(new DataSourcePool.Work<Void>() {
+                                @Override
+                                public Void run(DataSourcePool.Session session) throws JEVisException {
+                                    results[task] = runTask(tasks.get(task));
+                                    return null;
+                                }
+                            });
+                            if (!ran) {
+                                open.add(task);
+                                return null;
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            runOpen(open, tasks, results);
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+            // Tasks handed back after the calling thread was done
+            runOpen(open, tasks, results);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new JEVisException("Interrupted while pruning samples", 1, ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof JEVisException) {
+                throw (JEVisException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            open.clear();
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+        List<T> list = new ArrayList<T>(results.length);
+        for (Object result : results) {
+            list.add((T) result);
+        }
+        return list;
+    }
+
+    private static <T> void runOpen(Queue<Integer> open, List<Callable<T>> tasks, Object[] results) throws JEVisException {
+        Integer index;
+        while ((index = open.poll()) != null) {
+            results[index] = runTask(tasks.get(index));
+        }
+    }
+
+    private static <T> T runTask(Callable<T> task) throws JEVisException {
+        try {
+            return task.call();
+        } catch (JEVisException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * @return object ID and name of every attribute with samples
+     */
+    private List<String[]> listAttributes(final long objectID) throws JEVisException {
+        return _pool.execute(new DataSourcePool.Work<List<String[]>>() {
+            @Override
+            public List<String[]> run(DataSourcePool.Session session) throws JEVisException {
+                List<String[]> attributes = new ArrayList<String[]>();
+                JEVisObject object = session.getCache().getObject(objectID);
+                if (object == null) {
+                    return attributes;
+                }
+                JEVisClass jevisClass = object.getJEVisClass();
+                Logger logger = Logger.getLogger(RetentionEngine.class.getName());
+                if (logger.isLoggable(Level.FINE)) {
+                    logger.log(Level.FINE, String.format("Delete old Samples from Object 'obj/class': '%s/%s'",
+                            object.getName(), jevisClass == null ? null : jevisClass.getName()));
+                }
+                if (jevisClass == null) {
+                    // Objects without class have no attributes
+                    return attributes;
+                }
+                for (JEVisAttribute att : object.getAttributes()) {
+                    if (att.getTimestampFromLastSample() != null) {
+                        attributes.add(new String[]{String.valueOf(objectID), att.getName()});
+                    }
+                }
+                return attributes;
+            }
+        });
+    }
+
+    /**
+     * @return true if samples of the attribute were deleted
+     */
+    private boolean pruneAttribute(final long objectID, final String name, final RetentionPolicy policy, final AtomicLong deletedSamples) throws JEVisException {
+        return _pool.execute(new DataSourcePool.Work<Boolean>() {
+            @Override
+            public Boolean run(DataSourcePool.Session session) throws JEVisException {
+                JEVisObject object = session.getCache().getObject(objectID);
+                JEVisAttribute att = object == null ? null : session.getCache().getAttribute(object, name);
+                if (att == null) {
+                    return false;
+                }
+                DateTime latest = att.getTimestampFromLastSample();
+                if (latest == null) {
+                    return false;
+                }
+                long start = System.nanoTime();
+                boolean pruned;
+
+                if (policy.getOnePer() > 0) {
+                    long deleted = keepOnePer(att, policy.getOnePer(), latest);
+                    deletedSamples.addAndGet(deleted);
+                    pruned = deleted > 0;
+                } else {
+                    DateTime first = att.getTimestampFromFirstSample();
+                    long cutoff;
+                    if (policy.getKeepNewerThan() > 0) {
+                        // Always keep the latest sample
+                        cutoff = Math.min(System.currentTimeMillis() - policy.getKeepNewerThan(), latest.getMillis());
+                    } else {
+                        cutoff = latestKept(att, policy.getKeepLatest(), first, latest);
+                    }
+                    pruned = first != null && first.getMillis() < cutoff;
+                    if (pruned) {
+                        att.deleteSamplesBetween(BEGIN, new DateTime(cutoff - 1));
+                    }
+                }
+                _pool.getMetrics().record(Metrics.Operation.SAMPLE_PRUNE, start);
+                return pruned;
+            }
+        });
+    }
+
+    /**
+     * Read windows backwards from the latest sample until the samples to
+     * keep are found. Every window is twice as long as the one before, so
+     * sparse or old data costs a number of reads logarithmic in its age.
+     *
+     * @return time of the oldest sample to keep
+     */
+    private long latestKept(JEVisAttribute att, int keep, DateTime first, DateTime latest) throws JEVisException {
+        long begin = first == null ? latest.getMillis() : first.getMillis();
+        int missing = keep;
+        long window = _window;
+        for (long to = latest.getMillis(); to >= begin; to -= window, window *= 2) {
+            List<JEVisSample> samples = att.getSamples(new DateTime(Math.max(begin, to - window + 1)), new DateTime(to));
+            if (samples.size() >= missing) {
+                return samples.get(samples.size() - missing).getTimestamp().getMillis();
+            }
+            missing -= samples.size();
+        }
+        return begin;
+    }
+
+    /**
+     * Keep the latest sample of every interval and delete the other samples
+     * of the interval. The windows are aligned to the interval, so every
+     * interval is read at once.
+     *
+     * @return number of deleted samples
+     */
+    private long keepOnePer(JEVisAttribute att, long interval, DateTime latest) throws JEVisException {
+        DateTime first = att.getTimestampFromFirstSample();
+        if (first == null) {
+            return 0;
+        }
+        long window = Math.max(1, _window / interval) * interval;
+        long deleted = 0;
+        for (long from = first.getMillis() / interval * interval; from <= latest.getMillis(); from += window) {
+            List<JEVisSample> samples = att.getSamples(new DateTime(from), new DateTime(from + window - 1));
+            int firstOfInterval = 0;
+            for (int i = 0; i < samples.size(); i++) {
+                long ts = samples.get(i).getTimestamp().getMillis();
+                boolean lastOfInterval = i == samples.size() - 1
+                        || samples.get(i + 1).getTimestamp().getMillis() / interval != ts / interval;
+                if (!lastOfInterval) {
+                    continue;
+                }
+                if (i > firstOfInterval) {
+                    att.deleteSamplesBetween(samples.get(firstOfInterval).getTimestamp(), new DateTime(ts - 1));
+                    deleted += i - firstOfInterval;
+                }
+                firstOfInterval = i + 1;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * @return IDs of the object and all its descendants
+     */
+    private static List<Long> subtree(JEVisObject root, HandleCache cache) throws JEVisException {
+        List<Long> ids = new ArrayList<Long>();
+        Deque<JEVisObject> stack = new ArrayDeque<JEVisObject>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            JEVisObject object = stack.pop();
+            ids.add(object.getID());
+            for (JEVisObject child : object.getChildren()) {
+                cache.putObject(child);
+                stack.push(child);
+            }
+        }
+        return ids;
+    }
+}
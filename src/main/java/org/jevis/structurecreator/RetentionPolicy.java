@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import org.joda.time.Period;
+
+/**
+ * Which samples DELETE_OLD_SAMPLES(_RECURSIVE) keeps, declared in the
+ * "retention" field of a JSON node. At most one of the fields should be set,
+ * without any only the latest sample is kept. Durations are ISO-8601 periods
+ * with days, hours, minutes or seconds, e.g. "P30D" or "PT15M".
+ * <pre>
+ * "retention": { "keeplatest": 10 }
+ * "retention": { "keepnewerthan": "P30D" }
+ * "retention": { "oneper": "PT1H" }
+ * </pre>
+ * The latest sample of an attribute is always kept.
+ */
+public class RetentionPolicy {
+
+    private Integer keeplatest;
+    private String keepnewerthan;
+    private String oneper;
+
+    /**
+     * @return the number of latest samples to keep, at least 1
+     */
+    public int getKeepLatest() {
+        return keeplatest == null ? 1 : Math.max(1, keeplatest);
+    }
+
+    /**
+     * @return milliseconds samples are kept or -1 if not set
+     */
+    public long getKeepNewerThan() {
+        return toMillis(keepnewerthan);
+    }
+
+    /**
+     * @return milliseconds of the interval to keep one sample per or -1 if not
+     * set
+     */
+    public long getOnePer() {
+        return toMillis(oneper);
+    }
+
+    private static long toMillis(String period) {
+        if (period == null || period.isEmpty()) {
+            return -1;
+        }
+        return Period.parse(period).toStandardDuration().getMillis();
+    }
+
+    @Override
+    public String toString() {
+        if (getOnePer() > 0) {
+            return "one sample per " + oneper;
+        } else if (getKeepNewerThan() > 0) {
+            return "keep samples newer than " + keepnewerthan;
+        }
+        return "keep latest " + getKeepLatest();
+    }
+}
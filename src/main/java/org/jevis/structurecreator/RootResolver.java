@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jevis.api.JEVisClass;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisObject;
+import org.jevis.commons.json.JsonObject;
+
+/**
+ * Resolves the root object of a JSON-file.
+ *
+ * <ul>
+ * <li>If the root has an id &gt; 0, the object is fetched by ID and only
+ * checked against name/jevisclass.</li>
+ * <li>If the root has a "path", every segment is resolved below the previous
+ * one. The first segment is searched among the JEVis root objects and the
+ * objects of the JEVisClass of the same name (e.g. "Organization
+ * Directory").</li>
+ * <li>Otherwise the object is looked up by name in an index of all objects
+ * of its JEVisClass.</li>
+ * </ul>
+ * The indices and resolved roots are kept across all files processed by
+ * the same creator. Only IDs are cached, so the results are checked against
+ * the HandleCache of the calling session, which drops deleted objects.
+ */
+public class RootResolver {
+
+    public static final String PATH_SEPARATOR = "/";
+
+    private final ChildIndex _childIndex;
+    // JEVisClass -> name -> IDs
+    private final Map<String, Map<String, List<Long>>> _byClass = new HashMap<String, Map<String, List<Long>>>();
+    private final Map<String, Long> _byPath = new HashMap<String, Long>();
+
+    public RootResolver(ChildIndex childIndex) {
+        this._childIndex = childIndex;
+    }
+
+    /**
+     * Get root-object to create nodes under, has to be called with a session
+     * checked out.
+     *
+     * @param root header of the root node from the JSON-file
+     * @return the matching JEVisObject or null if not found
+     */
+    public synchronized JEVisObject resolve(JsonObject root, DataSourcePool.Session session) throws JEVisException {
+        HandleCache cache = session.getCache();
+        JEVisClass rootClass = cache.getJEVisClass(root.getJevisClass());
+        if (rootClass == null) {
+            System.out.println(String.format(
+                    "Error: JEVisClass with the name '%s' not found",
+                    root.getJevisClass()));
+            return null;
+        }
+
+        String path = root instanceof StructureNode ? ((StructureNode) root).getPath() : null;
+        JEVisObject rootObj;
+        if (root.getId() > 0) {
+            // Found by ID
+            rootObj = cache.getObject(root.getId());
+            if (rootObj == null) {
+                System.out.println(String.format(
+                        "Error: Object with ID (%d) not found", root.getId()));
+                return null;
+            }
+        } else if (path != null && !path.isEmpty()) {
+            rootObj = resolvePath(path, session);
+        } else {
+            rootObj = resolveName(root.getName(), root.getJevisClass(), session);
+        }
+
+        if (rootObj == null) {
+            System.out.println(String.format(
+                    "Error: Object with specified name/jevisClass '%s/%s' not found",
+                    path != null ? path : root.getName(), root.getJevisClass()));
+            return null;
+        }
+        if (!matches(rootObj, root.getName(), root.getJevisClass())) {
+            // Found, but name/jevisClass does not match
+            System.out.println(String.format(
+                    "Error: Found ID (%d), but name/jevisClass does not match\n"
+                    + "\t searched for: %s/%s"
+                    + "\t found: %s/%s",
+                    rootObj.getID(), root.getName(), root.getJevisClass(),
+                    rootObj.getName(), rootObj.getJEVisClass().getName()));
+            return null;
+        }
+        return rootObj;
+    }
+
+    /**
+     * Drop the indices and resolved roots
+     */
+    public synchronized void clear() {
+        _byClass.clear();
+        _byPath.clear();
+    }
+
+    private JEVisObject resolveName(String name, String className, DataSourcePool.Session session) throws JEVisException {
+        JEVisObject obj = lookup(name, className, session, false);
+        if (obj == null) {
+            // May have been created since the index was built
+            obj = lookup(name, className, session, true);
+        }
+        return obj;
+    }
+
+    private JEVisObject lookup(String name, String className, DataSourcePool.Session session, boolean rebuild) throws JEVisException {
+        Map<String, List<Long>> byName = _byClass.get(className);
+        if (byName == null || rebuild) {
+            byName = new HashMap<String, List<Long>>();
+            JEVisClass jclass = session.getCache().getJEVisClass(className);
+            if (jclass != null) {
+                for (JEVisObject obj : session.getDataSource().getObjects(jclass, false)) {
+                    List<Long> ids = byName.get(obj.getName());
+                    if (ids == null) {
+                        ids = new ArrayList<Long>(1);
+                        byName.put(obj.getName(), ids);
+                    }
+                    ids.add(obj.getID());
+                    session.getCache().putObject(obj);
+                }
+            }
+            _byClass.put(className, byName);
+        }
+        List<Long> ids = byName.get(name);
+        if (ids != null) {
+            for (Long id : ids) {
+                JEVisObject obj = session.getCache().getObject(id);
+                if (obj != null) {
+                    return obj;
+                }
+            }
+        }
+        return null;
+    }
+
+    private JEVisObject resolvePath(String path, DataSourcePool.Session session) throws JEVisException {
+        Long cached = _byPath.get(path);
+        if (cached != null) {
+            JEVisObject obj = session.getCache().getObject(cached);
+            if (obj != null) {
+                return obj;
+            }
+            _byPath.remove(path);
+        }
+
+        String[] segments = path.split(PATH_SEPARATOR);
+        JEVisObject current = null;
+        for (JEVisObject obj : session.getDataSource().getRootObjects()) {
+            if (obj.getName().equals(segments[0])) {
+                current = obj;
+                break;
+            }
+        }
+        if (current == null) {
+            current = resolveName(segments[0], segments[0], session);
+        }
+        for (int i = 1; i < segments.length && current != null; i++) {
+            current = _childIndex.find(current, segments[i], null, session.getCache());
+        }
+        if (current != null) {
+            _byPath.put(path, current.getID());
+        }
+        return current;
+    }
+
+    private static boolean matches(JEVisObject obj, String name, String className) throws JEVisException {
+        return (name == null || name.isEmpty() || obj.getName().equals(name))
+                && obj.getJEVisClass().getName().equals(className);
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts what was done while processing JSON-files
+ */
+public class RunSummary {
+
+    private final AtomicLong _written = new AtomicLong();
+    private final AtomicLong _skipped = new AtomicLong();
+    private final AtomicLong _deleted = new AtomicLong();
+    private final AtomicLong _missingReferences = new AtomicLong();
+    private final AtomicLong _unchangedSubtrees = new AtomicLong();
+    private final AtomicLong _unchangedNodes = new AtomicLong();
+    private final AtomicLong _imported = new AtomicLong();
+
+    /**
+     * An attribute value was written
+     */
+    public void written() {
+        _written.incrementAndGet();
+    }
+
+    /**
+     * An attribute value was skipped because it did not change
+     */
+    public void skipped() {
+        _skipped.incrementAndGet();
+    }
+
+    /**
+     * Objects were deleted
+     */
+    public void deleted(long count) {
+        _deleted.addAndGet(count);
+    }
+
+    /**
+     * A $(REF) value could not be resolved
+     */
+    public void missingReference() {
+        _missingReferences.incrementAndGet();
+    }
+
+    /**
+     * An unchanged subtree was skipped
+     *
+     * @param nodes number of nodes in the subtree
+     */
+    public void unchanged(long nodes) {
+        _unchangedSubtrees.incrementAndGet();
+        _unchangedNodes.addAndGet(nodes);
+    }
+
+    /**
+     * Historical samples were imported
+     */
+    public void imported(long count) {
+        _imported.addAndGet(count);
+    }
+
+    public long getWritten() {
+        return _written.get();
+    }
+
+    public long getSkipped() {
+        return _skipped.get();
+    }
+
+    public long getDeleted() {
+        return _deleted.get();
+    }
+
+    public long getMissingReferences() {
+        return _missingReferences.get();
+    }
+
+    public long getUnchangedSubtrees() {
+        return _unchangedSubtrees.get();
+    }
+
+    public long getUnchangedNodes() {
+        return _unchangedNodes.get();
+    }
+
+    public long getImported() {
+        return _imported.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Attributes written: %d, unchanged and skipped: %d, objects deleted: %d, missing references: %d, unchanged subtrees skipped: %d (%d nodes), samples imported: %d",
+                _written.get(), _skipped.get(), _deleted.get(), _missingReferences.get(),
+                _unchangedSubtrees.get(), _unchangedNodes.get(), _imported.get());
+    }
+}
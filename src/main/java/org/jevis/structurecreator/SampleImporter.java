@@ -0,0 +1,247 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jevis.api.JEVisAttribute;
+import org.jevis.api.JEVisConstants.PrimitiveType;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisSample;
+import org.joda.time.DateTime;
+
+/**
+ * Imports historical samples of an attribute from a CSV or NDJSON file.
+ *
+ * CSV files hold one "timestamp,value" per line, ';' and tab are accepted
+ * as separators as well and a header line is skipped. The separator is
+ * the one found first in the first line and used for the whole file, so
+ * values like "1,5" in a ';' separated file are kept intact and read with
+ * a decimal comma if the attribute holds doubles. NDJSON files
+ * (.ndjson, .jsonl) hold one {"ts": ..., "value": ...} object per line.
+ * Timestamps are ISO-8601 or milliseconds since the epoch.
+ *
+ * The file is streamed and committed in chunks with addSamples, so memory
+ * only depends on the chunk size. Samples not newer than the latest sample
+ * of the attribute are skipped, so an interrupted import continues where
+ * it stopped when it is run again.
+ */
+public class SampleImporter {
+
+    public static final int DEFAULT_CHUNK_SIZE = 10000;
+
+    /**
+     * A line of an NDJSON file
+     */
+    private static class Row {
+
+        private String ts;
+        private String timestamp;
+        private String value;
+    }
+
+    private final Metrics _metrics;
+    private final RunSummary _summary;
+    private final Gson _gson = new Gson();
+    private int _chunkSize = DEFAULT_CHUNK_SIZE;
+
+    public SampleImporter(Metrics metrics, RunSummary summary) {
+        this._metrics = metrics;
+        this._summary = summary;
+    }
+
+    /**
+     * @param chunkSize number of samples committed at once
+     */
+    public void setChunkSize(int chunkSize) {
+        this._chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Import the samples of a file into an attribute
+     *
+     * @param attribute attribute to import into
+     * @param primitiveType primitive type of the attribute
+     * @param source CSV or NDJSON file
+     * @return number of imported samples
+     */
+    public long importSamples(JEVisAttribute attribute, int primitiveType, File source) throws JEVisException, IOException {
+        String name = source.getName().toLowerCase();
+        boolean ndjson = name.endsWith(".ndjson") || name.endsWith(".jsonl");
+        DateTime latest = attribute.getTimestampFromLastSample();
+        long start = System.currentTimeMillis();
+        long imported = 0;
+        long skipped = 0;
+        long invalid = 0;
+        List<JEVisSample> chunk = new ArrayList<JEVisSample>(Math.min(_chunkSize, 1024));
+        char separator = 0;
+
+        BufferedReader in = Files.newBufferedReader(source.toPath(), StandardCharsets.UTF_8);
+        try {
+            String line;
+            for (long lineNumber = 1; (line = in.readLine()) != null; lineNumber++) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (!ndjson && separator == 0) {
+                    separator = detectSeparator(line);
+                }
+                String[] row = ndjson ? parseJson(line) : parseCsv(line, separator);
+                DateTime ts = row == null ? null : parseTimestamp(row[0]);
+                Object value = row == null ? null : parseValue(row[1], primitiveType, !ndjson && separator != ',');
+                if (ts == null || value == null) {
+                    // the header of a CSV file
+                    if (lineNumber > 1 || ndjson) {
+                        Logger.getLogger(SampleImporter.class.getName()).log(Level.WARNING, String.format(
+                                "Invalid sample in %s line %d: %s", source, lineNumber, line));
+                        invalid++;
+                    }
+                    continue;
+                }
+                if (latest != null && ts.getMillis() <= latest.getMillis()) {
+                    skipped++;
+                    continue;
+                }
+                chunk.add(attribute.buildSample(ts, value));
+                if (chunk.size() >= _chunkSize) {
+                    imported += commit(attribute, chunk);
+                    Logger.getLogger(SampleImporter.class.getName()).log(Level.INFO, String.format(
+                            "Imported %d samples into '%s' from %s (%.1f samples/s)",
+                            imported, attribute.getName(), source.getName(), rate(imported, start)));
+                }
+            }
+        } finally {
+            in.close();
+        }
+        imported += commit(attribute, chunk);
+
+        _summary.imported(imported);
+        Logger.getLogger(SampleImporter.class.getName()).log(Level.INFO, String.format(
+                "Imported %d samples into '%s' from %s in %d ms (%.1f samples/s), %d already imported, %d invalid",
+                imported, attribute.getName(), source.getName(), System.currentTimeMillis() - start,
+                rate(imported, start), skipped, invalid));
+        return imported;
+    }
+
+    private int commit(JEVisAttribute attribute, List<JEVisSample> chunk) throws JEVisException {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        attribute.addSamples(chunk);
+        _metrics.record(Metrics.Operation.SAMPLE_IMPORT, start);
+        int committed = chunk.size();
+        chunk.clear();
+        return committed;
+    }
+
+    /**
+     * @return the separator found first in the line or 0 if it has none
+     */
+    static char detectSeparator(String line) {
+        char found = 0;
+        int first = Integer.MAX_VALUE;
+        for (char separator : new char[]{',', ';', '\t'}) {
+            int index = line.indexOf(separator);
+            if (index >= 0 && index < first) {
+                first = index;
+                found = separator;
+            }
+        }
+        return found;
+    }
+
+    static String[] parseCsv(String line, char separator) {
+        int index = separator == 0 ? -1 : line.indexOf(separator);
+        if (index < 0) {
+            return null;
+        }
+        return new String[]{unquote(line.substring(0, index)), unquote(line.substring(index + 1))};
+    }
+
+    private String[] parseJson(String line) {
+        try {
+            Row row = _gson.fromJson(line, Row.class);
+            if (row == null) {
+                return null;
+            }
+            return new String[]{row.ts != null ? row.ts : row.timestamp, row.value};
+        } catch (JsonParseException ex) {
+            return null;
+        }
+    }
+
+    private static String unquote(String value) {
+        value = value.trim();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    private static DateTime parseTimestamp(String ts) {
+        if (ts == null || ts.isEmpty()) {
+            return null;
+        }
+        try {
+            if (Character.isDigit(ts.charAt(0)) && ts.indexOf('-') < 0) {
+                return new DateTime(Long.parseLong(ts));
+            }
+            return DateTime.parse(ts);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * @param decimalComma the value may use ',' as decimal mark
+     */
+    static Object parseValue(String value, int primitiveType, boolean decimalComma) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            if (primitiveType == PrimitiveType.DOUBLE) {
+                return Double.valueOf(decimalComma ? value.replace(',', '.') : value);
+            } else if (primitiveType == PrimitiveType.LONG) {
+                return Long.valueOf(value);
+            } else if (primitiveType == PrimitiveType.BOOLEAN) {
+                return value.equals("1") || Boolean.valueOf(value);
+            }
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+        return value;
+    }
+
+    private static double rate(long count, long start) {
+        long duration = Math.max(1, System.currentTimeMillis() - start);
+        return count * 1000.0 / duration;
+    }
+}
@@ -0,0 +1,307 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jevis.api.JEVisAttribute;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisObject;
+import org.jevis.api.JEVisSample;
+
+/**
+ * Defers the commit of new samples and commits the samples of each
+ * attribute together with JEVisAttribute.addSamples.
+ *
+ * This is not a batch write: JEAPI 3.0.1 has no call writing the samples of
+ * several attributes at once, so a flush still takes one round trip per
+ * attribute. Only several samples of the same attribute, like repeated
+ * writes in one run, share a round trip. A structure file writing one
+ * sample per attribute needs as many round trips as before, they are just
+ * moved out of the processing of the node.
+ *
+ * The pending samples are committed when there are batchSize of them, when
+ * the oldest is older than flushInterval milliseconds or when flush() is
+ * called explicitly. All methods are thread-safe.
+ *
+ * The pending samples are kept by object ID and attribute name. If the
+ * session reconnected since they were added, their attributes are resolved
+ * again through the cache of the new connection and the samples are built
+ * again before they are committed.
+ *
+ * Samples may be added for an Owner, e.g. the file they were read from.
+ * The owner is told about samples which could not be committed and its
+ * samples can be committed on their own with flush(owner).
+ */
+public class SampleWriter {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final long DEFAULT_FLUSH_INTERVAL = 5000;
+
+    /**
+     * The source of samples, e.g. the file they were read from
+     */
+    public interface Owner {
+
+        /**
+         * Called after samples of the owner could not be committed
+         *
+         * @param samples number of failed samples
+         */
+        void failed(int samples);
+    }
+
+    /**
+     * The pending samples of one attribute
+     */
+    private static class Pending {
+
+        private final Owner _owner;
+        private final long _objectID;
+        private final String _attributeName;
+        private final JEVisAttribute _attribute;
+        // connection the attribute handle belongs to
+        private final int _generation;
+        private final List<JEVisSample> _samples = new ArrayList<JEVisSample>();
+
+        Pending(Owner owner, long objectID, JEVisAttribute attribute, int generation) {
+            this._owner = owner;
+            this._objectID = objectID;
+            this._attributeName = attribute.getName();
+            this._attribute = attribute;
+            this._generation = generation;
+        }
+    }
+
+    private final Metrics _metrics;
+    private final Map<String, Pending> _pending = new LinkedHashMap<String, Pending>();
+    private HandleCache _cache;
+    private int _generation = 0;
+    private int _batchSize = DEFAULT_BATCH_SIZE;
+    private long _flushInterval = DEFAULT_FLUSH_INTERVAL;
+    private int _pendingCount = 0;
+    private long _firstPending = 0;
+
+    private int _batches = 0;
+    private long _committed = 0;
+    private long _failed = 0;
+
+    public SampleWriter(Metrics metrics) {
+        this._metrics = metrics;
+    }
+
+    /**
+     * @param batchSize number of pending samples after which they are
+     * committed
+     */
+    public synchronized void setBatchSize(int batchSize) {
+        this._batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * @param flushInterval milliseconds a sample may stay in the buffer
+     */
+    public synchronized void setFlushInterval(long flushInterval) {
+        this._flushInterval = flushInterval;
+    }
+
+    /**
+     * Set the cache of a new connection of the session. Samples added
+     * before are resolved through it when they are committed.
+     */
+    public synchronized void setCache(HandleCache cache) {
+        if (_cache != null) {
+            _generation++;
+        }
+        this._cache = cache;
+    }
+
+    /**
+     * Add a sample built by attribute.buildSample(). The sample must not be
+     * committed.
+     */
+    public void add(JEVisAttribute attribute, JEVisSample sample) {
+        add(null, attribute, sample);
+    }
+
+    /**
+     * Add a sample built by attribute.buildSample() for an owner. The sample
+     * must not be committed.
+     *
+     * @param owner owner of the sample or null
+     */
+    public synchronized void add(Owner owner, JEVisAttribute attribute, JEVisSample sample) {
+        String key = key(attribute);
+        Pending pending = _pending.get(key);
+        if (pending == null || pending._generation != _generation || pending._owner != owner) {
+            if (pending != null) {
+                // Samples of the lost connection or of another owner are
+                // committed before these
+                flush();
+            }
+            pending = new Pending(owner, objectID(attribute), attribute, _generation);
+            _pending.put(key, pending);
+        }
+        pending._samples.add(sample);
+        if (_pendingCount == 0) {
+            _firstPending = System.currentTimeMillis();
+        }
+        _pendingCount++;
+
+        if (_pendingCount >= _batchSize
+                || System.currentTimeMillis() - _firstPending >= _flushInterval) {
+            flush();
+        }
+    }
+
+    /**
+     * @return the last sample added for the attribute which is not committed
+     * yet, or null
+     */
+    public synchronized JEVisSample getLastPending(JEVisAttribute attribute) {
+        Pending pending = _pending.get(key(attribute));
+        if (pending == null) {
+            return null;
+        }
+        return pending._samples.get(pending._samples.size() - 1);
+    }
+
+    /**
+     * @return true if samples of the owner are waiting to be committed
+     */
+    public synchronized boolean hasPending(Owner owner) {
+        for (Pending pending : _pending.values()) {
+            if (pending._owner == owner) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Commit all pending samples, one addSamples call per attribute
+     */
+    public synchronized void flush() {
+        commit(null, true);
+    }
+
+    /**
+     * Commit the pending samples of one owner, one addSamples call per
+     * attribute
+     */
+    public synchronized void flush(Owner owner) {
+        commit(owner, false);
+    }
+
+    private void commit(Owner owner, boolean all) {
+        if (_pendingCount == 0 || (!all && !hasPending(owner))) {
+            return;
+        }
+        _batches++;
+        int committed = 0;
+        int failed = 0;
+        int objects = 0;
+        long lastObjectID = -1;
+        for (Iterator<Pending> it = _pending.values().iterator(); it.hasNext();) {
+            Pending pending = it.next();
+            if (!all && pending._owner != owner) {
+                continue;
+            }
+            it.remove();
+            _pendingCount -= pending._samples.size();
+            if (pending._objectID != lastObjectID) {
+                lastObjectID = pending._objectID;
+                objects++;
+            }
+            long start = System.nanoTime();
+            try {
+                JEVisAttribute attribute = pending._attribute;
+                List<JEVisSample> samples = pending._samples;
+                if (pending._generation != _generation) {
+                    // Built on the handles of a lost connection
+                    attribute = resolve(pending);
+                    samples = rebuild(attribute, samples);
+                }
+                attribute.addSamples(samples);
+                committed += samples.size();
+                _metrics.record(Metrics.Operation.SAMPLE_COMMIT, start);
+            } catch (JEVisException ex) {
+                failed += pending._samples.size();
+                if (pending._owner != null) {
+                    pending._owner.failed(pending._samples.size());
+                }
+                Logger.getLogger(SampleWriter.class.getName()).log(Level.SEVERE,
+                        "Could not commit " + pending._samples.size() + " samples of Attribute: " + pending._attributeName, ex);
+            }
+        }
+        _committed += committed;
+        _failed += failed;
+
+        Logger logger = Logger.getLogger(SampleWriter.class.getName());
+        Level level = failed == 0 ? Level.FINE : Level.WARNING;
+        if (logger.isLoggable(level)) {
+            logger.log(level, String.format("Sample batch %d: %d committed, %d failed (%d objects)",
+                    _batches, committed, failed, objects));
+        }
+    }
+
+    private JEVisAttribute resolve(Pending pending) throws JEVisException {
+        JEVisObject object = _cache.getObject(pending._objectID);
+        JEVisAttribute attribute = object == null ? null : _cache.getAttribute(object, pending._attributeName);
+        if (attribute == null) {
+            throw new JEVisException("Attribute " + pending._attributeName + " of object "
+                    + pending._objectID + " no longer exists", 1);
+        }
+        return attribute;
+    }
+
+    private static List<JEVisSample> rebuild(JEVisAttribute attribute, List<JEVisSample> samples) throws JEVisException {
+        List<JEVisSample> rebuilt = new ArrayList<JEVisSample>(samples.size());
+        for (JEVisSample sample : samples) {
+            rebuilt.add(attribute.buildSample(sample.getTimestamp(), sample.getValue(), sample.getNote()));
+        }
+        return rebuilt;
+    }
+
+    private static long objectID(JEVisAttribute attribute) {
+        JEVisObject object = attribute.getObject();
+        return object == null ? -1 : object.getID();
+    }
+
+    private static String key(JEVisAttribute attribute) {
+        return Long.toString(objectID(attribute)) + '\u0000' + attribute.getName();
+    }
+
+    public synchronized int getBatchCount() {
+        return _batches;
+    }
+
+    public synchronized long getCommittedCount() {
+        return _committed;
+    }
+
+    public synchronized long getFailedCount() {
+        return _failed;
+    }
+}
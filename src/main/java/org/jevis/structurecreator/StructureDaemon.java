@@ -0,0 +1,352 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jevis.api.JEVisException;
+
+/**
+ * Keeps one connected creator and processes structure files as they arrive,
+ * either dropped into a watched directory or sent as paths over a local
+ * socket.
+ *
+ * The files are queued and processed by a fixed number of workers, which
+ * share the sessions and warm caches of the creator. Files from the watched
+ * directory are moved to "processed" or "failed" afterwards, their journal
+ * and state are kept in "state", so a file dropped again with the same
+ * name continues from the state of the last one. The caches are
+ * cleared between files once they are older than the cache TTL, so changes
+ * made by others are picked up.
+ */
+public class StructureDaemon {
+
+    public static final String PROCESSED_DIR = "processed";
+    public static final String FAILED_DIR = "failed";
+    public static final String STATE_DIR = "state";
+    public static final long DEFAULT_SETTLE_TIME = 1000;
+    public static final long DEFAULT_CACHE_TTL = 3600000;
+
+    private final JSON2JEVisStructureCreator _creator;
+    private final ExecutorService _workers;
+    // files of the watched directory waiting or in progress
+    private final Set<String> _queued = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    // files hold the read lock, clearing the caches the write lock
+    private final ReentrantReadWriteLock _cacheLock = new ReentrantReadWriteLock();
+    private final CountDownLatch _stopped = new CountDownLatch(1);
+    private volatile long _cacheTime = System.currentTimeMillis();
+    private long _settleTime = DEFAULT_SETTLE_TIME;
+    private long _cacheTTL = DEFAULT_CACHE_TTL;
+    private WatchService _watchService;
+    private ServerSocket _serverSocket;
+
+    /**
+     * @param creator connected creator, its pool should have at least
+     * concurrency sessions
+     * @param concurrency number of files processed at the same time
+     */
+    public StructureDaemon(JSON2JEVisStructureCreator creator, int concurrency) {
+        this._creator = creator;
+        this._workers = Executors.newFixedThreadPool(Math.max(1, concurrency));
+    }
+
+    /**
+     * @param settleTime milliseconds a dropped file has to stay unchanged
+     * before it is processed
+     */
+    public void setSettleTime(long settleTime) {
+        this._settleTime = settleTime;
+    }
+
+    /**
+     * @param cacheTTL milliseconds after which the caches are cleared
+     */
+    public void setCacheTTL(long cacheTTL) {
+        this._cacheTTL = cacheTTL;
+    }
+
+    /**
+     * Queue a file for processing
+     *
+     * @return true if the file was processed without error
+     */
+    public Future<Boolean> submit(final File file) {
+        return _workers.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return process(file, null);
+            }
+        });
+    }
+
+    /**
+     * Process all structure files in the directory and every file dropped
+     * into it later
+     */
+    public void watch(final File dir) throws IOException {
+        new File(dir, PROCESSED_DIR).mkdirs();
+        new File(dir, FAILED_DIR).mkdirs();
+        new File(dir, STATE_DIR).mkdirs();
+        _watchService = dir.toPath().getFileSystem().newWatchService();
+        dir.toPath().register(_watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        queueDirectory(dir);
+
+        Thread watcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (;;) {
+                        WatchKey key = _watchService.take();
+                        for (WatchEvent<?> event : key.pollEvents()) {
+                            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                                queueDirectory(dir);
+                            } else {
+                                queueFromDirectory(new File(dir, ((Path) event.context()).toString()));
+                            }
+                        }
+                        key.reset();
+                    }
+                } catch (ClosedWatchServiceException ex) {
+                    // stopped
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "structure-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        Logger.getLogger(StructureDaemon.class.getName()).log(Level.INFO, "Watching " + dir);
+    }
+
+    /**
+     * Accept connections on a local port. A client sends one path of a
+     * structure file per line and gets "OK &lt;path&gt;" or "FAILED
+     * &lt;path&gt;" back once the file was processed.
+     */
+    public void listen(int port) throws IOException {
+        _serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread listener = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!_serverSocket.isClosed()) {
+                    try {
+                        final Socket client = _serverSocket.accept();
+                        Thread handler = new Thread(new Runnable() {
+                            @Override
+                            public void run() {
+                                serve(client);
+                            }
+                        }, "structure-client");
+                        handler.setDaemon(true);
+                        handler.start();
+                    } catch (IOException ex) {
+                        if (!_serverSocket.isClosed()) {
+                            Logger.getLogger(StructureDaemon.class.getName()).log(Level.WARNING, null, ex);
+                        }
+                    }
+                }
+            }
+        }, "structure-listener");
+        listener.setDaemon(true);
+        listener.start();
+        Logger.getLogger(StructureDaemon.class.getName()).log(Level.INFO, "Listening on port " + _serverSocket.getLocalPort());
+    }
+
+    /**
+     * Stop watching and listening and wait for the queued files
+     */
+    public void stop() {
+        try {
+            if (_watchService != null) {
+                _watchService.close();
+            }
+            if (_serverSocket != null) {
+                _serverSocket.close();
+            }
+        } catch (IOException ex) {
+            Logger.getLogger(StructureDaemon.class.getName()).log(Level.WARNING, null, ex);
+        }
+        _workers.shutdown();
+        try {
+            _workers.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        _stopped.countDown();
+    }
+
+    /**
+     * Block until stop() was called
+     */
+    public void awaitStop() throws InterruptedException {
+        _stopped.await();
+    }
+
+    private void serve(Socket client) {
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8), true);
+            String line;
+            while ((line = in.readLine()) != null) {
+                String path = line.trim();
+                if (path.isEmpty()) {
+                    continue;
+                }
+                boolean ok;
+                try {
+                    ok = submit(new File(path)).get();
+                } catch (ExecutionException ex) {
+                    ok = false;
+                }
+                out.println((ok ? "OK " : "FAILED ") + path);
+            }
+        } catch (IOException ex) {
+            Logger.getLogger(StructureDaemon.class.getName()).log(Level.WARNING, null, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                client.close();
+            } catch (IOException ex) {
+            }
+        }
+    }
+
+    private void queueDirectory(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                queueFromDirectory(file);
+            }
+        }
+    }
+
+    private void queueFromDirectory(final File file) {
+        if (!file.isFile() || !file.getName().endsWith(".json") || !_queued.add(file.getPath())) {
+            return;
+        }
+        _workers.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (!awaitSettled(file)) {
+                        return;
+                    }
+                    boolean ok = process(file, new File(file.getParentFile(), STATE_DIR));
+                    File target = new File(new File(file.getParentFile(), ok ? PROCESSED_DIR : FAILED_DIR), file.getName());
+                    Files.move(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException ex) {
+                    Logger.getLogger(StructureDaemon.class.getName()).log(Level.WARNING, "Could not move " + file, ex);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    _queued.remove(file.getPath());
+                }
+            }
+        });
+    }
+
+    /**
+     * Wait until the file is no longer written to
+     *
+     * @return false if the file vanished
+     */
+    private boolean awaitSettled(File file) throws InterruptedException {
+        long length = -1;
+        long modified = -1;
+        while (file.exists() && (file.length() != length || file.lastModified() != modified)) {
+            length = file.length();
+            modified = file.lastModified();
+            Thread.sleep(_settleTime);
+        }
+        return file.exists();
+    }
+
+    /**
+     * @param stateDir directory for the journal and state of the file, null
+     * for the directory of the file
+     */
+    private boolean process(File file, File stateDir) {
+        clearExpiredCaches();
+        long start = System.currentTimeMillis();
+        _cacheLock.readLock().lock();
+        try {
+            _creator.processJSONFile(file.getPath(), stateDir);
+            Logger.getLogger(StructureDaemon.class.getName()).log(Level.INFO, String.format(
+                    "Processed %s in %d ms", file, System.currentTimeMillis() - start));
+            return true;
+        } catch (JEVisException ex) {
+            Logger.getLogger(StructureDaemon.class.getName()).log(Level.SEVERE, "Could not process " + file, ex);
+        } catch (IOException ex) {
+            Logger.getLogger(StructureDaemon.class.getName()).log(Level.SEVERE, "Could not process " + file, ex);
+        } catch (RuntimeException ex) {
+            Logger.getLogger(StructureDaemon.class.getName()).log(Level.SEVERE, "Could not process " + file, ex);
+        } finally {
+            _cacheLock.readLock().unlock();
+        }
+        return false;
+    }
+
+    /**
+     * Clear the caches if they expired and no other file is processed
+     */
+    private void clearExpiredCaches() {
+        if (System.currentTimeMillis() - _cacheTime < _cacheTTL || !_cacheLock.writeLock().tryLock()) {
+            return;
+        }
+        try {
+            if (System.currentTimeMillis() - _cacheTime >= _cacheTTL) {
+                _creator.clearCaches();
+                _cacheTime = System.currentTimeMillis();
+                Logger.getLogger(StructureDaemon.class.getName()).log(Level.INFO, "Cleared caches");
+            }
+        } finally {
+            _cacheLock.writeLock().unlock();
+        }
+    }
+}
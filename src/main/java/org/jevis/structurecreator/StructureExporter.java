@@ -0,0 +1,428 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jevis.api.JEVisAttribute;
+import org.jevis.api.JEVisConstants.PrimitiveType;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisFile;
+import org.jevis.api.JEVisObject;
+import org.jevis.api.JEVisSample;
+
+/**
+ * Exports an existing JEVis subtree into the structure JSON-format.
+ *
+ * The objects are written to a JsonWriter depth-first as soon as they were
+ * fetched. The children and latest attribute values of the next siblings
+ * are fetched ahead in parallel, each fetch with its own session of the
+ * DataSourcePool, so only a bounded window of objects per level is held in
+ * memory.
+ *
+ * Optionally the values of named attributes holding the ID of an exported
+ * object are written as $(REF) values, every exported object then gets its
+ * JEVis ID as reference ID. The IDs of the subtree are kept in a bit set,
+ * IDs found outside of it in a bounded cache. Files can be extracted into a directory next to the
+ * JSON-file and written as $(FILE) values. Password attributes are not
+ * exported.
+ */
+public class StructureExporter {
+
+    public static final int DEFAULT_WINDOW = 16;
+    private static final int MAX_DEPTH = 256;
+    private static final int MAX_OUTSIDE = 10000;
+
+    /**
+     * An object fetched with its children and attribute values
+     */
+    private static class Node {
+
+        private long _id;
+        private String _name;
+        private String _jevisClass;
+        private final List<Long> _children = new ArrayList<Long>();
+        // name and value of every exported attribute
+        private final List<String[]> _attributes = new ArrayList<String[]>();
+    }
+
+    private final DataSourcePool _pool;
+    private final int _threads;
+    private int _window = DEFAULT_WINDOW;
+    private Set<String> _referenceAttributes = Collections.emptySet();
+    private boolean _extractFiles;
+    // file currently exported to
+    private File _jsonFile;
+
+    // IDs of objects in the exported subtree, JEVis IDs are dense
+    private final BitSet _inSubtree = new BitSet();
+    private final Set<Long> _largeInSubtree = new HashSet<Long>();
+    // IDs of objects outside of the subtree, least recently used dropped
+    private final Map<Long, Boolean> _outside = new LinkedHashMap<Long, Boolean>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > MAX_OUTSIDE;
+        }
+    };
+    private ExecutorService _executor;
+    private long _exported;
+
+    /**
+     * @param pool pool to check out sessions from
+     * @param threads maximum number of parallel fetches
+     */
+    public StructureExporter(DataSourcePool pool, int threads) {
+        this._pool = pool;
+        this._threads = threads;
+    }
+
+    /**
+     * @param window number of siblings fetched ahead per level
+     */
+    public void setWindow(int window) {
+        this._window = Math.max(1, window);
+    }
+
+    /**
+     * @param attributeNames names of the attributes whose values are written
+     * as $(REF) values if they hold the ID of an exported object, empty to
+     * write no references
+     */
+    public void setReferenceAttributes(Set<String> attributeNames) {
+        this._referenceAttributes = new HashSet<String>(attributeNames);
+    }
+
+    /**
+     * @param extractFiles save the latest file of file attributes next to
+     * the JSON-file and write them as $(FILE) values, otherwise file
+     * attributes are not exported
+     */
+    public void setExtractFiles(boolean extractFiles) {
+        this._extractFiles = extractFiles;
+    }
+
+    /**
+     * Export an object and its subtree
+     *
+     * @param rootID ID of the object to export, written as the root node
+     * @param jsonFile file to write
+     * @return number of exported objects
+     */
+    public long export(long rootID, String jsonFile) throws JEVisException, IOException {
+        File file = new File(jsonFile).getAbsoluteFile();
+        _jsonFile = file;
+        synchronized (this) {
+            _inSubtree.clear();
+            _largeInSubtree.clear();
+            _outside.clear();
+        }
+        addToSubtree(rootID);
+        _exported = 0;
+        long start = System.currentTimeMillis();
+
+        int threads = Math.min(_threads, _pool.getIdleCount());
+        _executor = threads > 0 ? Executors.newFixedThreadPool(threads) : null;
+        Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+        try {
+            JsonWriter writer = new JsonWriter(out);
+            writer.setIndent("  ");
+            Node root = fetch(rootID, true);
+            if (root == null) {
+                throw new JEVisException("Object with ID (" + rootID + ") not found", 1);
+            }
+            writer.beginObject();
+            writer.name("id").value(root._id);
+            writer.name("name").value(root._name);
+            writer.name("jevisclass").value(root._jevisClass);
+            writeChildren(writer, root._children, 1);
+            writer.endObject();
+            writer.flush();
+        } finally {
+            out.close();
+            if (_executor != null) {
+                _executor.shutdownNow();
+            }
+        }
+        Logger.getLogger(StructureExporter.class.getName()).log(Level.INFO, String.format(
+                "Exported %d objects to %s in %d ms", _exported, jsonFile, System.currentTimeMillis() - start));
+        return _exported;
+    }
+
+    /**
+     * Write the children of a node, fetching the next siblings ahead
+     */
+    private void writeChildren(JsonWriter writer, List<Long> children, int depth) throws JEVisException, IOException {
+        if (children.isEmpty()) {
+            return;
+        }
+        if (depth > MAX_DEPTH) {
+            throw new JEVisException("Subtree deeper than " + MAX_DEPTH + " levels, is there a cycle?", 1);
+        }
+        writer.name("children").beginArray();
+        Deque<Future<Node>> window = new ArrayDeque<Future<Node>>();
+        int next = 0;
+        while (next < children.size() || !window.isEmpty()) {
+            while (next < children.size() && window.size() < _window) {
+                window.add(submit(children.get(next++)));
+            }
+            Node node = get(window.poll());
+            if (node == null) {
+                // deleted since its parent was fetched
+                continue;
+            }
+            writer.beginObject();
+            writer.name("id").value(_referenceAttributes.isEmpty() ? 0 : node._id);
+            writer.name("name").value(node._name);
+            writer.name("jevisclass").value(node._jevisClass);
+            if (!node._attributes.isEmpty()) {
+                writer.name("attributes").beginArray();
+                for (String[] att : node._attributes) {
+                    writer.beginObject();
+                    writer.name("name").value(att[0]);
+                    writer.name("lastvalue").value(att[1]);
+                    writer.endObject();
+                }
+                writer.endArray();
+            }
+            writeChildren(writer, node._children, depth + 1);
+            writer.endObject();
+            _exported++;
+        }
+        writer.endArray();
+    }
+
+    private Future<Node> submit(final long id) {
+        Callable<Node> task = new Callable<Node>() {
+            @Override
+            public Node call() throws JEVisException, IOException {
+                return fetch(id, false);
+            }
+        };
+        if (_executor == null) {
+            // No idle session, fetch in the calling thread
+            FutureTask<Node> future = new FutureTask<Node>(task);
+            future.run();
+            return future;
+        }
+        return _executor.submit(task);
+    }
+
+    private static Node get(Future<Node> future) throws JEVisException, IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new JEVisException("Interrupted while exporting", 1, ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof JEVisException) {
+                throw (JEVisException) ex.getCause();
+            } else if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Fetch an object with the IDs of its children and the latest values of
+     * its attributes
+     *
+     * @param headerOnly do not fetch the attributes
+     * @return the node or null if the object does not exist
+     */
+    private Node fetch(final long id, final boolean headerOnly) throws JEVisException, IOException {
+        final IOException[] failed = new IOException[1];
+        Node node = _pool.execute(new DataSourcePool.Work<Node>() {
+            @Override
+            public Node run(DataSourcePool.Session session) throws JEVisException {
+                long start = System.nanoTime();
+                failed[0] = null;
+                // Not cached, the cache would hold the whole subtree
+                JEVisObject object = session.getDataSource().getObject(id);
+                if (object == null) {
+                    return null;
+                }
+                Node node = new Node();
+                node._id = id;
+                node._name = object.getName();
+                node._jevisClass = object.getJEVisClass().getName();
+                for (JEVisObject child : object.getChildren()) {
+                    node._children.add(child.getID());
+                    addToSubtree(child.getID());
+                }
+                if (!headerOnly) {
+                    try {
+                        fetchAttributes(session, object, node);
+                    } catch (IOException ex) {
+                        failed[0] = ex;
+                    }
+                }
+                _pool.getMetrics().record(Metrics.Operation.EXPORT, start);
+                return node;
+            }
+        });
+        if (failed[0] != null) {
+            throw failed[0];
+        }
+        return node;
+    }
+
+    private void fetchAttributes(DataSourcePool.Session session, JEVisObject object, Node node) throws JEVisException, IOException {
+        for (JEVisAttribute att : object.getAttributes()) {
+            JEVisSample latest = att.getLatestSample();
+            if (latest == null) {
+                continue;
+            }
+            int primitiveType = att.getPrimitiveType();
+            String value;
+            if (primitiveType == PrimitiveType.PASSWORD_PBKDF2) {
+                continue;
+            } else if (primitiveType == PrimitiveType.FILE) {
+                if (!_extractFiles) {
+                    continue;
+                }
+                value = extractFile(object, att, latest);
+                if (value == null) {
+                    continue;
+                }
+            } else {
+                value = latest.getValueAsString();
+                if (value == null) {
+                    continue;
+                }
+                if (_referenceAttributes.contains(att.getName())
+                        && (primitiveType == PrimitiveType.LONG || primitiveType == PrimitiveType.STRING)
+                        && isReference(session, value)) {
+                    value = JSON2JEVisStructureCreator.REFERENCE_MARKER + value;
+                }
+            }
+            node._attributes.add(new String[]{att.getName(), value});
+        }
+    }
+
+    /**
+     * Save the latest file of an attribute
+     *
+     * @return the $(FILE) value or null if the sample holds no file
+     */
+    private String extractFile(JEVisObject object, JEVisAttribute att, JEVisSample latest) throws JEVisException, IOException {
+        JEVisFile jfile = latest.getValueAsFile();
+        if (jfile == null || jfile.getBytes() == null) {
+            return null;
+        }
+        String name = (object.getID() + "_" + att.getName() + "_"
+                + (jfile.getFilename() == null ? "file" : jfile.getFilename())).replaceAll("[^A-Za-z0-9._-]", "_");
+        String dirName = filesDirName(_jsonFile);
+        File dir = new File(_jsonFile.getParentFile(), dirName);
+        dir.mkdirs();
+        Files.write(new File(dir, name).toPath(), jfile.getBytes());
+        return JSON2JEVisStructureCreator.FILE_MARKER + dirName + "/" + name;
+    }
+
+    /**
+     * @return name of the directory the files of a JSON-file are saved in,
+     * next to it
+     */
+    private static String filesDirName(File jsonFile) {
+        String name = jsonFile.getName();
+        return (name.endsWith(".json") ? name.substring(0, name.length() - ".json".length()) : name) + "_files";
+    }
+
+    /**
+     * Check if a value is the ID of an object in the exported subtree. Objects
+     * not seen yet are checked by walking up their parents.
+     */
+    private boolean isReference(DataSourcePool.Session session, String value) throws JEVisException {
+        long id;
+        try {
+            id = Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+        if (id <= 0) {
+            return false;
+        }
+        List<Long> path = new ArrayList<Long>();
+        Boolean inSubtree = isKnown(id);
+        JEVisObject current = inSubtree == null ? session.getDataSource().getObject(id) : null;
+        while (inSubtree == null) {
+            if (current == null || path.size() > MAX_DEPTH) {
+                inSubtree = false;
+                break;
+            }
+            path.add(current.getID());
+            List<JEVisObject> parents = current.getParents();
+            current = parents == null || parents.isEmpty() ? null : parents.get(0);
+            inSubtree = current == null ? null : isKnown(current.getID());
+        }
+        for (Long seen : path) {
+            if (inSubtree) {
+                addToSubtree(seen);
+            } else {
+                addOutside(seen);
+            }
+        }
+        return inSubtree;
+    }
+
+    private synchronized void addToSubtree(long id) {
+        if (id >= 0 && id <= Integer.MAX_VALUE) {
+            _inSubtree.set((int) id);
+        } else {
+            _largeInSubtree.add(id);
+        }
+    }
+
+    private synchronized void addOutside(long id) {
+        _outside.put(id, Boolean.TRUE);
+    }
+
+    /**
+     * @return true if the object is in the subtree, false if it is known to
+     * be outside or null if it was not seen yet
+     */
+    private synchronized Boolean isKnown(long id) {
+        if (id >= 0 && id <= Integer.MAX_VALUE ? _inSubtree.get((int) id) : _largeInSubtree.contains(id)) {
+            return true;
+        }
+        return _outside.get(id) != null ? false : null;
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import org.jevis.commons.json.JsonObject;
+
+/**
+ * A JsonObject with the additional fields of the structure format which are
+ * not part of the JEVis JSON model.
+ */
+public class StructureNode extends JsonObject {
+
+    private RetentionPolicy _retention;
+    private String _path;
+    private String _position;
+
+    /**
+     * @return the policy for DELETE_OLD_SAMPLES(_RECURSIVE) or null for the
+     * default
+     */
+    public RetentionPolicy getRetention() {
+        return _retention;
+    }
+
+    public void setRetention(RetentionPolicy retention) {
+        this._retention = retention;
+    }
+
+    /**
+     * @return path of a root node, segments separated by '/', or null
+     */
+    public String getPath() {
+        return _path;
+    }
+
+    public void setPath(String path) {
+        this._path = path;
+    }
+
+    /**
+     * @return position of the node in the file, the indices of it and its
+     * ancestors among their siblings separated by '/', empty for the root
+     */
+    public String getPosition() {
+        return _position;
+    }
+
+    public void setPosition(String position) {
+        this._position = position;
+    }
+}
@@ -0,0 +1,304 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Local state of the last successful run of a JSON-file, used to skip
+ * subtrees which did not change since.
+ *
+ * For every node the state holds the hash of its subtree, the JEVis object
+ * it was applied to and its parent, and the objects the $(REF) values of
+ * the node resolved to. A subtree is unchanged if its hash and parent are
+ * the same and the references of all its nodes still resolve to the same
+ * objects. Its stored entries are then carried over to the next state.
+ *
+ * The state is saved next to the file, or in a given directory, and
+ * replaced once the file was processed. Subtrees with a failed node are not
+ * saved, so they are processed again in the next run.
+ *
+ * The subtree hashes, the stored state and the state of the current run
+ * are held in memory, a few hundred bytes per node of the file, so memory
+ * grows with the number of nodes even though the file itself is streamed.
+ */
+public class StructureState {
+
+    public static final String SUFFIX = ".state";
+    private static final String HEADER = "# JSON2JEVisStructureCreator state 1";
+    private static final char SEPARATOR = '\t';
+
+    private static class Entry {
+
+        private final String _hash;
+        private final long _op;
+        private final long _objectID;
+        private final long _parentID;
+        // reference ID -> object ID, -1 if not resolved yet
+        private final Map<Long, Long> _references;
+
+        Entry(String hash, long op, long objectID, long parentID, Map<Long, Long> references) {
+            this._hash = hash;
+            this._op = op;
+            this._objectID = objectID;
+            this._parentID = parentID;
+            this._references = references;
+        }
+    }
+
+    private final File _file;
+    private final Map<String, String> _hashes;
+    private final TreeMap<String, Entry> _stored = new TreeMap<String, Entry>();
+    private final Map<String, Entry> _applied = new ConcurrentHashMap<String, Entry>();
+    private final Set<String> _skipped = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Set<String> _failed = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private StructureState(File file, Map<String, String> hashes) {
+        this._file = file;
+        this._hashes = hashes;
+    }
+
+    /**
+     * Hash the subtrees of a JSON-file and load the state of its last run
+     *
+     * @param jsonFile the JSON-file to process
+     * @param dir directory to keep the state in, null for the directory of
+     * the JSON-file
+     * @param verify ignore the stored state, so every node is processed
+     */
+    public static StructureState open(String jsonFile, File dir, boolean verify) throws IOException {
+        File file = dir == null ? new File(jsonFile + SUFFIX) : new File(dir, new File(jsonFile).getName() + SUFFIX);
+        StructureState state = new StructureState(file, SubtreeHasher.hash(jsonFile));
+        if (!verify && state._file.exists()) {
+            state.load();
+        }
+        return state;
+    }
+
+    private void load() throws IOException {
+        BufferedReader in = Files.newBufferedReader(_file.toPath(), StandardCharsets.UTF_8);
+        try {
+            if (!HEADER.equals(in.readLine())) {
+                Logger.getLogger(StructureState.class.getName()).log(Level.WARNING,
+                        "Ignoring state of unknown format: " + _file);
+                return;
+            }
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split(String.valueOf(SEPARATOR), -1);
+                if (fields.length < 6) {
+                    continue;
+                }
+                try {
+                    Map<Long, Long> references = new HashMap<Long, Long>();
+                    for (String reference : fields[5].split(",")) {
+                        int index = reference.indexOf('=');
+                        if (index > 0) {
+                            references.put(Long.valueOf(reference.substring(0, index)),
+                                    Long.valueOf(reference.substring(index + 1)));
+                        }
+                    }
+                    _stored.put(fields[0], new Entry(fields[1], Long.parseLong(fields[2]),
+                            Long.parseLong(fields[3]), Long.parseLong(fields[4]), references));
+                } catch (NumberFormatException ex) {
+                    // damaged line, the subtree is processed again
+                }
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Check if the subtree at a position did not change since the last run
+     *
+     * @param parentID the object the subtree is processed under
+     * @param mappedIDs reference IDs mapped to the JEVis IDs known so far
+     * @return the ID of the object the node was applied to, 0 for none, or
+     * null if the subtree has to be processed
+     */
+    public Long getUnchanged(String position, long parentID, Map<Long, Long> mappedIDs) {
+        String hash = _hashes.get(position);
+        Entry entry = _stored.get(position);
+        if (hash == null || entry == null || !hash.equals(entry._hash) || entry._parentID != parentID) {
+            return null;
+        }
+        SortedMap<String, Entry> subtree = subtree(position);
+        // References produced inside the subtree resolve to its objects
+        Map<Long, Long> produced = new HashMap<Long, Long>();
+        for (Entry node : subtree.values()) {
+            if (node._op > 0) {
+                produced.put(node._op, node._objectID);
+            }
+        }
+        for (Entry node : subtree.values()) {
+            for (Map.Entry<Long, Long> reference : node._references.entrySet()) {
+                Long id = produced.get(reference.getKey());
+                if (id == null) {
+                    id = mappedIDs.get(reference.getKey());
+                }
+                if (id == null || !id.equals(reference.getValue())) {
+                    return null;
+                }
+            }
+        }
+        return entry._objectID;
+    }
+
+    /**
+     * Skip an unchanged subtree, the references produced inside it are
+     * restored
+     *
+     * @return number of nodes in the subtree
+     */
+    public int skip(String position, Map<Long, Long> mappedIDs) {
+        SortedMap<String, Entry> subtree = subtree(position);
+        for (Entry node : subtree.values()) {
+            if (node._op > 0 && node._objectID > 0) {
+                mappedIDs.put(node._op, node._objectID);
+            }
+        }
+        _skipped.add(position);
+        return subtree.size();
+    }
+
+    /**
+     * @return true if the subtree at the position was skipped
+     */
+    public boolean isSkipped(String position) {
+        return _skipped.contains(position);
+    }
+
+    /**
+     * Record a node which was applied
+     *
+     * @param objectID ID of the resulting object or 0 for none
+     * @param references reference IDs used by the attributes of the node
+     */
+    public void applied(String position, long op, long objectID, long parentID, Set<Long> references) {
+        String hash = _hashes.get(position);
+        if (hash == null) {
+            return;
+        }
+        Map<Long, Long> resolved = new HashMap<Long, Long>();
+        for (Long reference : references) {
+            resolved.put(reference, -1L);
+        }
+        _applied.put(position, new Entry(hash, op, objectID, parentID, resolved));
+    }
+
+    /**
+     * Record a node which could not be applied, it and its ancestors are
+     * not saved
+     */
+    public void failed(String position) {
+        _failed.add(position);
+    }
+
+    /**
+     * Replace the stored state with the nodes applied and skipped in this
+     * run
+     *
+     * @param mappedIDs reference IDs mapped to the JEVis IDs, after all
+     * references of the file were written
+     */
+    public void save(Map<Long, Long> mappedIDs) throws IOException {
+        Set<String> incomplete = new HashSet<String>();
+        for (String position : _failed) {
+            for (String p = position; p != null; p = parentOf(p)) {
+                incomplete.add(p);
+            }
+        }
+        TreeMap<String, Entry> next = new TreeMap<String, Entry>();
+        for (String position : _skipped) {
+            next.putAll(subtree(position));
+        }
+        for (Map.Entry<String, Entry> applied : _applied.entrySet()) {
+            Entry entry = applied.getValue();
+            for (Map.Entry<Long, Long> reference : entry._references.entrySet()) {
+                Long id = mappedIDs.get(reference.getKey());
+                if (id == null) {
+                    incomplete.add(applied.getKey());
+                    for (String p = parentOf(applied.getKey()); p != null; p = parentOf(p)) {
+                        incomplete.add(p);
+                    }
+                } else {
+                    reference.setValue(id);
+                }
+            }
+            next.put(applied.getKey(), entry);
+        }
+        next.keySet().removeAll(incomplete);
+
+        File tmp = new File(_file.getPath() + ".tmp");
+        Writer out = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8);
+        try {
+            out.write(HEADER + "\n");
+            for (Map.Entry<String, Entry> node : next.entrySet()) {
+                Entry entry = node.getValue();
+                StringBuilder references = new StringBuilder();
+                for (Map.Entry<Long, Long> reference : entry._references.entrySet()) {
+                    if (references.length() > 0) {
+                        references.append(',');
+                    }
+                    references.append(reference.getKey()).append('=').append(reference.getValue());
+                }
+                out.write(node.getKey() + SEPARATOR + entry._hash + SEPARATOR + entry._op + SEPARATOR
+                        + entry._objectID + SEPARATOR + entry._parentID + SEPARATOR + references + "\n");
+            }
+        } finally {
+            out.close();
+        }
+        Files.move(tmp.toPath(), _file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the stored entries of a node and all its descendants
+     */
+    private SortedMap<String, Entry> subtree(String position) {
+        // '0' follows '/', so the range holds all positions below
+        TreeMap<String, Entry> subtree = new TreeMap<String, Entry>(_stored.subMap(position + "/", position + "0"));
+        Entry entry = _stored.get(position);
+        if (entry != null) {
+            subtree.put(position, entry);
+        }
+        return subtree;
+    }
+
+    private static String parentOf(String position) {
+        int index = position.lastIndexOf('/');
+        return index < 0 ? null : position.substring(0, index);
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import org.jevis.api.JEVisException;
+import org.jevis.commons.json.JsonAttribute;
+import org.jevis.commons.json.JsonObject;
+
+/**
+ * Computes a stable hash of every subtree of a structure JSON-file.
+ *
+ * The hash of a node covers its operation, name, class, attributes and the
+ * hashes of its children in order. $(FILE) and $(SAMPLES) values also
+ * cover the size and modification time of the referenced file. Only subtrees which result in
+ * the same JEVis structure when applied twice get a hash, subtrees
+ * containing DELETE, RENAME or DELETE_OLD_SAMPLES operations are always
+ * processed.
+ *
+ * The file is streamed, but the position and hash of every node are kept
+ * in memory, so the result grows with the number of nodes.
+ */
+public class SubtreeHasher {
+
+    public static final String DIGEST_ALGORITHM = "SHA-256";
+    // bytes of the digest kept per subtree
+    private static final int HASH_LENGTH = 16;
+
+    private static class Frame {
+
+        private final Frame _parent;
+        private final MessageDigest _digest;
+        private boolean _stable;
+
+        Frame(Frame parent, boolean stable) {
+            this._parent = parent;
+            this._digest = newDigest();
+            this._stable = stable;
+        }
+
+        void update(String value) {
+            _digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            _digest.update((byte) 0);
+        }
+    }
+
+    private SubtreeHasher() {
+    }
+
+    /**
+     * Hash all subtrees below the root of a file
+     *
+     * @return hashes by position of the subtree, subtrees which always have
+     * to be processed are missing
+     */
+    public static Map<String, String> hash(String jsonFile) throws IOException {
+        final Map<String, String> hashes = new HashMap<String, String>();
+        final File dir = new File(jsonFile).getAbsoluteFile().getParentFile();
+        JsonStructureReader reader = new JsonStructureReader(Files.newBufferedReader(
+                Paths.get(jsonFile), StandardCharsets.UTF_8));
+        try {
+            reader.readRoot();
+            reader.readChildren(new JsonStructureReader.NodeHandler<Frame>() {
+                @Override
+                public Frame enter(JsonObject node, Frame parent) {
+                    long op = node.getId();
+                    // CREATE, IGNORE and reference producers
+                    Frame frame = new Frame(parent, op >= -1);
+                    frame.update(Long.toString(op));
+                    frame.update(node.getName());
+                    frame.update(node.getJevisClass());
+                    for (JsonAttribute att : node.getAttributes()) {
+                        frame.update(att.getName());
+                        frame.update(att.getLastvalue());
+                        String value = att.getLastvalue();
+                        String fileName = null;
+                        if (value != null && value.startsWith(JSON2JEVisStructureCreator.FILE_MARKER)) {
+                            fileName = value.substring(JSON2JEVisStructureCreator.FILE_MARKER.length());
+                        } else if (value != null && value.startsWith(JSON2JEVisStructureCreator.SAMPLES_MARKER)) {
+                            fileName = value.substring(JSON2JEVisStructureCreator.SAMPLES_MARKER.length());
+                        }
+                        if (fileName != null) {
+                            File file = new File(dir, fileName);
+                            frame.update(file.length() + "/" + file.lastModified());
+                        }
+                    }
+                    return frame;
+                }
+
+                @Override
+                public void leave(JsonObject node, Frame frame) {
+                    byte[] hash = frame._digest.digest();
+                    if (frame._stable) {
+                        hashes.put(((StructureNode) node).getPosition(), toHex(hash));
+                    }
+                    frame._parent._digest.update(hash, 0, HASH_LENGTH);
+                    frame._parent._stable &= frame._stable;
+                }
+            }, new Frame(null, true));
+        } catch (JEVisException ex) {
+            // not thrown by the handler
+            throw new IllegalStateException(ex);
+        } finally {
+            reader.close();
+        }
+        return hashes;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException ex) {
+            // every Java platform has to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(HASH_LENGTH * 2);
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            sb.append(String.format("%02x", bytes[i] & 0xff));
+        }
+        return sb.toString();
+    }
+}
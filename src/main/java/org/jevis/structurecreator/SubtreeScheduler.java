@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisObject;
+import org.jevis.commons.json.JsonObject;
+
+/**
+ * Processes independent sibling subtrees of an in-memory JSON tree in
+ * parallel on a ForkJoinPool.
+ *
+ * A node is always processed before its children. The siblings under a
+ * parent are split into waves, a sibling is put into a later wave than the
+ * earlier siblings matching the same name/jevisclass, so a DELETE runs before
+ * a following CREATE of the same object. $(REF) values do not order the
+ * siblings, they are deferred by the ReferenceResolver until their object
+ * exists.
+ */
+public class SubtreeScheduler {
+
+    /**
+     * Processes a single node without its children
+     */
+    public interface NodeProcessor {
+
+        JEVisObject process(JsonObject node, JEVisObject parent) throws JEVisException;
+    }
+
+    private final ForkJoinPool _pool;
+    private final NodeProcessor _processor;
+
+    /**
+     * @param parallelism number of worker threads
+     * @param processor processor for single nodes, has to be thread-safe
+     */
+    public SubtreeScheduler(int parallelism, NodeProcessor processor) {
+        this._pool = new ForkJoinPool(parallelism);
+        this._processor = processor;
+    }
+
+    /**
+     * Process the given nodes and their subtrees under parent and wait until
+     * all are done.
+     */
+    public void run(List<JsonObject> nodes, JEVisObject parent) throws JEVisException {
+        try {
+            _pool.invoke(new SiblingsTask(nodes, parent));
+        } catch (WrappedException ex) {
+            throw ex.cause;
+        }
+    }
+
+    public void shutdown() {
+        _pool.shutdown();
+    }
+
+    private class SiblingsTask extends RecursiveAction {
+
+        private final List<JsonObject> _siblings;
+        private final JEVisObject _parent;
+
+        SiblingsTask(List<JsonObject> siblings, JEVisObject parent) {
+            this._siblings = siblings;
+            this._parent = parent;
+        }
+
+        @Override
+        protected void compute() {
+            for (List<JsonObject> wave : waves(_siblings)) {
+                List<NodeTask> tasks = new ArrayList<NodeTask>(wave.size());
+                for (JsonObject node : wave) {
+                    tasks.add(new NodeTask(node, _parent));
+                }
+                invokeAll(tasks);
+            }
+        }
+    }
+
+    private class NodeTask extends RecursiveAction {
+
+        private final JsonObject _node;
+        private final JEVisObject _parent;
+
+        NodeTask(JsonObject node, JEVisObject parent) {
+            this._node = node;
+            this._parent = parent;
+        }
+
+        @Override
+        protected void compute() {
+            JEVisObject object;
+            try {
+                object = _processor.process(_node, _parent);
+            } catch (JEVisException ex) {
+                throw new WrappedException(ex);
+            }
+            if (!_node.getChildren().isEmpty()) {
+                new SiblingsTask(_node.getChildren(), object).compute();
+            }
+            // release the finished subtree
+            _node.setChildren(new ArrayList<JsonObject>());
+        }
+    }
+
+    private static class WrappedException extends RuntimeException {
+
+        final JEVisException cause;
+
+        WrappedException(JEVisException cause) {
+            super(cause);
+            this.cause = cause;
+        }
+    }
+
+    /**
+     * Split siblings into waves, each wave only depends on earlier ones.
+     * Siblings are chained by their name/jevisclass key, a sibling without
+     * name or class may match any other one and is a barrier between all
+     * siblings before and after it.
+     */
+    private List<List<JsonObject>> waves(List<JsonObject> siblings) {
+        Map<String, Integer> lastWave = new HashMap<String, Integer>();
+        int barrier = -1;
+        List<List<JsonObject>> waves = new ArrayList<List<JsonObject>>();
+        for (JsonObject node : siblings) {
+            int wave;
+            if (isWildcard(node.getName()) || isWildcard(node.getJevisClass())) {
+                wave = waves.size();
+                barrier = wave;
+            } else {
+                String key = node.getJevisClass() + '\u0000' + node.getName();
+                Integer last = lastWave.get(key);
+                wave = Math.max(barrier, last == null ? -1 : last) + 1;
+                lastWave.put(key, wave);
+            }
+            if (wave == waves.size()) {
+                waves.add(new ArrayList<JsonObject>());
+            }
+            waves.get(wave).add(node);
+        }
+        return waves;
+    }
+
+    private static boolean isWildcard(String value) {
+        return value == null || value.isEmpty();
+    }
+}
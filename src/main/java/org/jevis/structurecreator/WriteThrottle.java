@@ -0,0 +1,205 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Limits the rate of writes to the JEVis database, so a large run does not
+ * starve the other users of the database.
+ *
+ * Every mutating JEVis API call (commits, deletes and added samples) takes
+ * permits first and waits if the current rate is used up. The rate adapts
+ * to the observed latency of the writes: when the p95 latency of the last
+ * interval exceeds the target the rate is halved, when it stays well below
+ * the target the rate is raised step by step up to the maximum.
+ */
+public class WriteThrottle {
+
+    public static final double DEFAULT_MIN_RATE = 1;
+    public static final long DEFAULT_TARGET_LATENCY = 200;
+    public static final int DEFAULT_SAMPLES_PER_PERMIT = SampleWriter.DEFAULT_BATCH_SIZE;
+    public static final long DEFAULT_INTERVAL = 1000;
+    private static final int MIN_WRITES_PER_INTERVAL = 5;
+    private static final double BACKOFF = 0.5;
+    private static final double RAMP_UP_STEPS = 20;
+
+    private final double _maxRate;
+    private double _minRate = DEFAULT_MIN_RATE;
+    private long _targetLatency = DEFAULT_TARGET_LATENCY;
+    private int _samplesPerPermit = DEFAULT_SAMPLES_PER_PERMIT;
+    private long _interval = TimeUnit.MILLISECONDS.toNanos(DEFAULT_INTERVAL);
+
+    private double _rate;
+    // System.nanoTime() at which the next permit is free
+    private long _nextFree = System.nanoTime();
+    private Metrics.Histogram _latencies = new Metrics.Histogram();
+    private long _intervalStart = System.nanoTime();
+
+    private final AtomicInteger _queueDepth = new AtomicInteger();
+    private final AtomicInteger _maxQueueDepth = new AtomicInteger();
+    private final AtomicLong _waitNanos = new AtomicLong();
+
+    /**
+     * @param maxRate maximum number of writes per second, also the rate to
+     * start with
+     */
+    public WriteThrottle(double maxRate) {
+        this._maxRate = maxRate;
+        this._rate = maxRate;
+    }
+
+    /**
+     * @param minRate the rate is never lowered below this number of writes
+     * per second
+     */
+    public synchronized void setMinRate(double minRate) {
+        this._minRate = Math.min(minRate, _maxRate);
+    }
+
+    /**
+     * @param targetLatency p95 latency of writes in milliseconds above which
+     * the rate is lowered
+     */
+    public synchronized void setTargetLatency(long targetLatency) {
+        this._targetLatency = targetLatency;
+    }
+
+    /**
+     * @param samplesPerPermit number of samples one permit allows to add,
+     * larger batches take more permits
+     */
+    public synchronized void setSamplesPerPermit(int samplesPerPermit) {
+        this._samplesPerPermit = Math.max(1, samplesPerPermit);
+    }
+
+    /**
+     * @param interval milliseconds of writes the latency is evaluated over
+     * before the rate is adjusted
+     */
+    public synchronized void setInterval(long interval) {
+        this._interval = TimeUnit.MILLISECONDS.toNanos(interval);
+    }
+
+    /**
+     * @return number of permits needed to add the given number of samples
+     */
+    public synchronized int permitsForSamples(int samples) {
+        return Math.max(1, (samples + _samplesPerPermit - 1) / _samplesPerPermit);
+    }
+
+    /**
+     * Wait until the given number of writes are allowed. An interrupt stops
+     * the wait, the write is not failed.
+     */
+    public void acquire(int permits) {
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(_nextFree, now);
+            _nextFree = start + (long) (permits * TimeUnit.SECONDS.toNanos(1) / _rate);
+            wait = start - now;
+        }
+        if (wait <= 0) {
+            return;
+        }
+        int depth = _queueDepth.incrementAndGet();
+        int max = _maxQueueDepth.get();
+        while (depth > max && !_maxQueueDepth.compareAndSet(max, depth)) {
+            max = _maxQueueDepth.get();
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            _queueDepth.decrementAndGet();
+            _waitNanos.addAndGet(wait);
+        }
+    }
+
+    /**
+     * Record the latency of a write and adjust the rate at the end of an
+     * interval
+     */
+    public synchronized void completed(long nanos) {
+        _latencies.record(nanos);
+        long now = System.nanoTime();
+        // At a low rate the interval is extended until it has enough writes
+        if (now - _intervalStart < _interval || _latencies.getCount() < MIN_WRITES_PER_INTERVAL) {
+            return;
+        }
+        double observed = _latencies.getCount() * (double) TimeUnit.SECONDS.toNanos(1) / (now - _intervalStart);
+        adjust(_latencies.getPercentileMillis(0.95), observed);
+        _latencies = new Metrics.Histogram();
+        _intervalStart = now;
+    }
+
+    /**
+     * @param p95 p95 latency of the interval in milliseconds
+     * @param observed writes per second of the interval, may be far below
+     * the rate if the writes are slow anyway
+     */
+    private void adjust(double p95, double observed) {
+        double rate = _rate;
+        if (p95 > _targetLatency) {
+            rate = Math.max(_minRate, Math.min(_rate, observed) * BACKOFF);
+        } else if (p95 < _targetLatency / 2.0) {
+            rate = Math.min(_maxRate, _rate + _maxRate / RAMP_UP_STEPS);
+        }
+        if (rate != _rate) {
+            Logger.getLogger(WriteThrottle.class.getName()).log(Level.FINE, String.format(
+                    "Write p95 %.1f ms (target %d ms), rate %.1f -> %.1f writes/s", p95, _targetLatency, _rate, rate));
+            _rate = rate;
+        }
+    }
+
+    /**
+     * @return current number of allowed writes per second
+     */
+    public synchronized double getRate() {
+        return _rate;
+    }
+
+    public double getMaxRate() {
+        return _maxRate;
+    }
+
+    /**
+     * @return number of writes currently waiting for a permit
+     */
+    public int getQueueDepth() {
+        return _queueDepth.get();
+    }
+
+    public int getMaxQueueDepth() {
+        return _maxQueueDepth.get();
+    }
+
+    /**
+     * @return total time writes waited for a permit
+     */
+    public double getWaitMillis() {
+        return _waitNanos.get() / 1e6;
+    }
+}
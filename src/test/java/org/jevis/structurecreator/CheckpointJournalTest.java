@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.jevis.api.JEVisObject;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CheckpointJournalTest {
+
+    private TestFiles _files;
+    private File _json;
+
+    @Before
+    public void setUp() throws Exception {
+        _files = new TestFiles();
+        _json = _files.write("site.json", "{'id': 1, 'name': 'Root', 'jevisclass': 'Organization'}");
+    }
+
+    @After
+    public void tearDown() {
+        _files.delete();
+    }
+
+    @Test
+    public void onlyCommittedBatchesAreResumed() throws Exception {
+        CheckpointJournal journal = CheckpointJournal.open(_json, null, false);
+        journal.completed("0", 7, 100);
+        journal.commit(journal.takeBatch());
+        journal.completed("1", 0, 101);
+        journal.close();
+
+        journal = CheckpointJournal.open(_json, null, true);
+        assertEquals(Long.valueOf(100), journal.get("0", 7));
+        assertNull(journal.get("1", 0));
+        assertEquals(Long.valueOf(100), journal.getReferences().get(7L));
+        journal.close();
+    }
+
+    @Test
+    public void tornLineIsCutOffBeforeAppending() throws Exception {
+        CheckpointJournal journal = CheckpointJournal.open(_json, null, false);
+        journal.completed("0", 7, 100);
+        journal.commit(journal.takeBatch());
+        journal.close();
+        append(new File(_json.getPath() + CheckpointJournal.SUFFIX), "0\t10");
+
+        journal = CheckpointJournal.open(_json, null, true);
+        assertEquals(Long.valueOf(100), journal.get("0", 7));
+        journal.commit(Arrays.asList("8\t102\t1\n"));
+        journal.close();
+
+        journal = CheckpointJournal.open(_json, null, true);
+        assertEquals(Long.valueOf(100), journal.get("0", 7));
+        assertEquals(Long.valueOf(102), journal.get("1", 8));
+        journal.close();
+    }
+
+    @Test
+    public void changedFileStartsOver() throws Exception {
+        CheckpointJournal journal = CheckpointJournal.open(_json, null, false);
+        journal.completed("0", 7, 100);
+        journal.commit(journal.takeBatch());
+        journal.close();
+        _files.write("site.json", "{'id': 1, 'name': 'Root', 'jevisclass': 'Organization', 'children': []}");
+
+        journal = CheckpointJournal.open(_json, null, true);
+        assertNull(journal.get("0", 7));
+        journal.close();
+    }
+
+    @Test
+    public void resumeSkipsJournaledNodes() throws Exception {
+        InMemoryDataSource server = new InMemoryDataSource("Root", Arrays.asList("Value"));
+        JEVisObject root = server.connect().getObject(InMemoryDataSource.ROOT_ID);
+        root.buildObject("Old", root.getJEVisClass()).commit();
+        File json = _files.write("site.json", "{'id': 1, 'name': 'Root', 'jevisclass': 'Organization', 'children': ["
+                + "{'id': -2, 'name': 'Old', 'jevisclass': 'Organization'},"
+                + "{'id': 0, 'name': 'New', 'jevisclass': 'Organization'}]}");
+        // An interrupted run completed the DELETE
+        CheckpointJournal journal = CheckpointJournal.open(json, null, false);
+        journal.completed("0", -2, 0);
+        journal.commit(journal.takeBatch());
+        journal.close();
+        JSON2JEVisStructureCreator creator = new JSON2JEVisStructureCreator();
+        creator.setJournaling(true);
+        creator.setResume(true);
+        assertTrue(creator.connectToJEVis(server));
+        try {
+            creator.processJSONFile(json.getPath());
+        } finally {
+            creator.disconnect();
+        }
+
+        assertNotNull(TestFiles.find(server.connect(), "Old"));
+        assertNotNull(TestFiles.find(server.connect(), "New"));
+        assertFalse(new File(json.getPath() + CheckpointJournal.SUFFIX).exists());
+    }
+
+    private static void append(File file, String content) throws IOException {
+        FileOutputStream out = new FileOutputStream(file, true);
+        try {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.util.Arrays;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisObject;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChildIndexTest {
+
+    private InMemoryDataSource _server;
+    private HandleCache _cache;
+    private JEVisObject _root;
+    private ChildIndex _index;
+
+    @Before
+    public void setUp() throws Exception {
+        _server = new InMemoryDataSource("Root", Arrays.asList("Value"));
+        _cache = new HandleCache(_server.connect());
+        _root = _cache.getObject(InMemoryDataSource.ROOT_ID);
+        _index = new ChildIndex();
+    }
+
+    @Test
+    public void findsChildrenByNameAndClass() throws Exception {
+        JEVisObject first = create("A");
+        JEVisObject second = create("B");
+
+        assertEquals(first.getID(), _index.find(_root, "A", InMemoryDataSource.ROOT_CLASS, _cache).getID());
+        assertEquals(second.getID(), _index.find(_root, "B", null, _cache).getID());
+        assertEquals(first.getID(), _index.find(_root, "", InMemoryDataSource.ROOT_CLASS, _cache).getID());
+        assertNull(_index.find(_root, "A", "Building", _cache));
+        assertEquals(2, _index.findAll(_root, null, null, _cache).size());
+    }
+
+    @Test
+    public void childrenAreFetchedOnce() throws Exception {
+        create("A");
+        _index.find(_root, "A", null, _cache);
+        long calls = _server.getCalls();
+
+        for (int i = 0; i < 10; i++) {
+            _index.find(_root, "A", null, _cache);
+            _index.find(_root, "Missing", null, _cache);
+        }
+
+        assertEquals(calls, _server.getCalls());
+    }
+
+    @Test
+    public void addAndRemoveKeepTheIndexCurrent() throws Exception {
+        assertNull(_index.find(_root, "A", null, _cache));
+        JEVisObject created = create("A");
+        _index.add(_root, created);
+        assertEquals(created.getID(), _index.find(_root, "A", null, _cache).getID());
+        // A new child has no children to fetch
+        long calls = _server.getCalls();
+        assertNull(_index.find(created, "Child", null, _cache));
+        assertEquals(calls, _server.getCalls());
+
+        _index.remove(created);
+
+        assertNull(_index.find(_root, "A", null, _cache));
+    }
+
+    private JEVisObject create(String name) throws JEVisException {
+        JEVisObject object = _root.buildObject(name, _root.getJEVisClass());
+        object.commit();
+        return object;
+    }
+}
@@ -0,0 +1,291 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jevis.api.JEVisAttribute;
+import org.jevis.api.JEVisDataSource;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisObject;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DataSourcePoolTest {
+
+    private InMemoryDataSource _server;
+    private DataSourcePool _pool;
+    private TestFiles _files;
+
+    @Before
+    public void setUp() throws Exception {
+        _server = new InMemoryDataSource("Root", Arrays.asList("Value"));
+        _pool = new DataSourcePool(_server, new Metrics());
+        _pool.open(2);
+        _files = new TestFiles();
+    }
+
+    @After
+    public void tearDown() {
+        _pool.close();
+        _files.delete();
+    }
+
+    private static class Counter implements SampleWriter.Owner {
+
+        private final AtomicInteger _failed = new AtomicInteger();
+
+        @Override
+        public void failed(int samples) {
+            _failed.addAndGet(samples);
+        }
+    }
+
+    @Test
+    public void flushCommitsOnlyTheSamplesOfTheOwner() throws JEVisException {
+        final long first = create("First");
+        final long second = create("Second");
+        final Counter one = new Counter();
+        final Counter two = new Counter();
+        _pool.execute(new DataSourcePool.Work<Void>() {
+            @Override
+            public Void run(DataSourcePool.Session session) throws JEVisException {
+                add(session, one, first, "1");
+                add(session, two, second, "2");
+                return null;
+            }
+        });
+
+        _pool.flush(one);
+
+        assertEquals("1", TestFiles.latest(_server.connect().getObject(first), "Value"));
+        assertNull(TestFiles.latest(_server.connect().getObject(second), "Value"));
+        _pool.flush(two);
+        assertEquals("2", TestFiles.latest(_server.connect().getObject(second), "Value"));
+        assertEquals(0, one._failed.get());
+    }
+
+    @Test
+    public void ownerCountsItsFailedSamples() throws JEVisException {
+        final long first = create("First");
+        final Counter owner = new Counter();
+        _pool.execute(new DataSourcePool.Work<Void>() {
+            @Override
+            public Void run(DataSourcePool.Session session) throws JEVisException {
+                add(session, owner, first, "1");
+                return null;
+            }
+        });
+        // The attribute can not be resolved after a reconnect
+        _server.connect().getObject(first).delete();
+        for (DataSourcePool.Session session : _pool.getSessions()) {
+            session.getSampleWriter().setCache(new HandleCache(_server.connect()));
+        }
+
+        _pool.flush(owner);
+
+        assertEquals(1, owner._failed.get());
+    }
+
+    @Test
+    public void tryExecuteDoesNotWaitForASession() throws Exception {
+        final CountDownLatch held = new CountDownLatch(2);
+        final CountDownLatch release = new CountDownLatch(1);
+        List<Thread> holders = new ArrayList<Thread>();
+        for (int i = 0; i < 2; i++) {
+            Thread holder = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        _pool.execute(new DataSourcePool.Work<Void>() {
+                            @Override
+                            public Void run(DataSourcePool.Session session) {
+                                held.countDown();
+                                try {
+                                    release.await();
+                                } catch (InterruptedException ex) {
+                                    Thread.currentThread().interrupt();
+                                }
+                                return null;
+                            }
+                        });
+                    } catch (JEVisException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            });
+            holder.start();
+            holders.add(holder);
+        }
+        held.await();
+
+        boolean ran = _pool.tryExecute(new DataSourcePool.Work<Void>() {
+            @Override
+            public Void run(DataSourcePool.Session session) {
+                return null;
+            }
+        });
+
+        release.countDown();
+        for (Thread holder : holders) {
+            holder.join();
+        }
+        assertFalse(ran);
+        assertEquals(2, _pool.getIdleCount());
+    }
+
+    /**
+     * Connections which fail until the next connect after drop()
+     */
+    private class DroppingConnector implements DataSourcePool.Connector {
+
+        private final AtomicInteger _connects = new AtomicInteger();
+        private volatile boolean _dropped;
+
+        void drop() {
+            _dropped = true;
+        }
+
+        @Override
+        public JEVisDataSource connect() throws JEVisException {
+            _connects.incrementAndGet();
+            _dropped = false;
+            final JEVisDataSource ds = _server.connect();
+            return (JEVisDataSource) Proxy.newProxyInstance(JEVisDataSource.class.getClassLoader(),
+                    new Class<?>[]{JEVisDataSource.class}, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    if (_dropped) {
+                        if (method.getName().equals("isConnectionAlive")) {
+                            return false;
+                        }
+                        throw new JEVisException("Connection lost", 1);
+                    }
+                    try {
+                        return method.invoke(ds, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                }
+            });
+        }
+    }
+
+    @Test
+    public void lostConnectionIsReconnectedWithPendingSamples() throws JEVisException {
+        DroppingConnector connector = new DroppingConnector();
+        DataSourcePool pool = new DataSourcePool(connector, new Metrics());
+        pool.setBackoff(1);
+        pool.open(1);
+        try {
+            pool.execute(new DataSourcePool.Work<Void>() {
+                @Override
+                public Void run(DataSourcePool.Session session) throws JEVisException {
+                    add(session, null, InMemoryDataSource.ROOT_ID, "1");
+                    return null;
+                }
+            });
+            connector.drop();
+
+            String name = pool.execute(new DataSourcePool.Work<String>() {
+                @Override
+                public String run(DataSourcePool.Session session) throws JEVisException {
+                    return session.getDataSource().getObject(InMemoryDataSource.ROOT_ID).getName();
+                }
+            });
+
+            assertEquals("Root", name);
+            assertEquals(2, connector._connects.get());
+        } finally {
+            pool.close();
+        }
+        assertEquals("1", TestFiles.latest(_server.connect().getObject(InMemoryDataSource.ROOT_ID), "Value"));
+    }
+
+    @Test
+    public void concurrentFilesPruneWithoutDeadlock() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            create("Node " + i);
+        }
+        _server.seedSamples(5, 60000);
+        final JSON2JEVisStructureCreator creator = new JSON2JEVisStructureCreator();
+        creator.setPoolSize(2);
+        assertTrue(creator.connectToJEVis(_server));
+        final List<File> files = new ArrayList<File>();
+        for (int i = 0; i < 2; i++) {
+            files.add(_files.write("prune" + i + ".json", "{'id': 1, 'name': 'Root', 'jevisclass': 'Organization', 'children': ["
+                    + "{'id': -6, 'name': 'Node " + (2 * i) + "', 'jevisclass': 'Organization'},"
+                    + "{'id': -6, 'name': 'Node " + (2 * i + 1) + "', 'jevisclass': 'Organization'}]}"));
+        }
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (final File file : files) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int run = 0; run < 20; run++) {
+                            creator.processJSONFile(file.getPath());
+                        }
+                    } catch (Throwable ex) {
+                        error.set(ex);
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join(60000);
+            assertFalse("deadlocked", thread.isAlive());
+        }
+        creator.disconnect();
+        assertNull(error.get());
+        JEVisObject node = TestFiles.find(_server.connect(), "Node 3");
+        assertEquals(1, node.getAttribute("Value").getAllSamples().size());
+    }
+
+    private long create(String name) throws JEVisException {
+        JEVisObject root = _server.connect().getObject(InMemoryDataSource.ROOT_ID);
+        JEVisObject object = root.buildObject(name, root.getJEVisClass());
+        object.commit();
+        return object.getID();
+    }
+
+    private static void add(DataSourcePool.Session session, SampleWriter.Owner owner, long objectID, String value) throws JEVisException {
+        JEVisAttribute attribute = session.getCache().getAttribute(session.getCache().getObject(objectID), "Value");
+        session.getSampleWriter().add(owner, attribute, attribute.buildSample(null, value));
+    }
+}
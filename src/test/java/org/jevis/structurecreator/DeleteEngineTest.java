@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisObject;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeleteEngineTest {
+
+    private InMemoryDataSource _server;
+    private DataSourcePool _pool;
+    private RunSummary _summary;
+    private DeleteEngine _engine;
+    private JEVisObject _root;
+
+    @Before
+    public void setUp() throws Exception {
+        _server = new InMemoryDataSource("Root", Arrays.asList("Value"));
+        _pool = new DataSourcePool(_server, new Metrics());
+        _pool.open(1);
+        _summary = new RunSummary();
+        _engine = new DeleteEngine(_pool, new ChildIndex(), _summary);
+        _root = _server.connect().getObject(InMemoryDataSource.ROOT_ID);
+    }
+
+    @After
+    public void tearDown() {
+        _pool.close();
+    }
+
+    @Test
+    public void recursiveDeleteRemovesTheWholeSubtree() throws Exception {
+        JEVisObject site = create(_root, "Site");
+        create(create(site, "A"), "A1");
+        create(site, "B");
+        JEVisObject other = create(_root, "Other");
+
+        assertEquals(4, delete(site, true));
+
+        assertEquals(2, _server.size());
+        assertNull(TestFiles.find(_server.connect(), "Site"));
+        assertEquals(other.getID(), TestFiles.find(_server.connect(), "Other").getID());
+        assertEquals(4, _summary.getDeleted());
+    }
+
+    @Test
+    public void nonRecursiveDeleteOnlyRemovesTheObject() throws Exception {
+        JEVisObject site = create(_root, "Site");
+
+        assertEquals(1, delete(site, false));
+
+        assertEquals(1, _server.size());
+    }
+
+    @Test
+    public void deepSubtreesDoNotOverflowTheStack() throws Exception {
+        JEVisObject top = create(_root, "Level 0");
+        JEVisObject parent = top;
+        for (int i = 1; i < 5000; i++) {
+            parent = create(parent, "Level " + i);
+        }
+        _engine.setProgressInterval(1000);
+
+        assertEquals(5000, delete(top, true));
+
+        assertEquals(1, _server.size());
+    }
+
+    private int delete(final JEVisObject object, final boolean recursive) throws JEVisException {
+        return _pool.execute(new DataSourcePool.Work<Integer>() {
+            @Override
+            public Integer run(DataSourcePool.Session session) throws JEVisException {
+                List<JEVisObject> objects = Collections.singletonList(session.getCache().getObject(object.getID()));
+                return _engine.delete(objects, recursive);
+            }
+        });
+    }
+
+    private static JEVisObject create(JEVisObject parent, String name) throws JEVisException {
+        JEVisObject object = parent.buildObject(name, parent.getJEVisClass());
+        object.commit();
+        return object;
+    }
+}
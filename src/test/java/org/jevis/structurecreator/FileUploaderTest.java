@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.io.File;
+import java.util.Arrays;
+import org.jevis.api.JEVisAttribute;
+import org.jevis.api.JEVisFile;
+import org.joda.time.DateTime;
+import org.junit.After;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileUploaderTest {
+
+    private TestFiles _files;
+    private FileUploader _uploader;
+    private JEVisAttribute _attribute;
+
+    @Before
+    public void setUp() throws Exception {
+        _files = new TestFiles();
+        _uploader = new FileUploader();
+        InMemoryDataSource server = new InMemoryDataSource("Root", Arrays.asList("Value"));
+        _attribute = server.connect().getObject(InMemoryDataSource.ROOT_ID).getAttribute("Value");
+    }
+
+    @After
+    public void tearDown() {
+        _files.delete();
+    }
+
+    @Test
+    public void filesAreIdentifiedByContent() throws Exception {
+        FileUploader.FileUpload abc = _uploader.prepare(_files.write("a.txt", "abc"));
+        FileUploader.FileUpload same = _uploader.prepare(_files.write("b.txt", "abc"));
+        FileUploader.FileUpload other = _uploader.prepare(_files.write("c.txt", "abd"));
+
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", abc.getDigest());
+        assertEquals(abc.getDigest(), same.getDigest());
+        assertNotEquals(abc.getDigest(), other.getDigest());
+        assertSame(abc, _uploader.prepare(new File(_files.getDir(), "a.txt")));
+    }
+
+    @Test
+    public void uploadedFilesAreRecognizedByTheirNote() throws Exception {
+        FileUploader.FileUpload upload = _uploader.prepare(_files.write("a.txt", "abc"));
+        FileUploader.FileUpload other = _uploader.prepare(_files.write("c.txt", "abd"));
+
+        assertTrue(_uploader.isUploaded(_attribute.buildSample(new DateTime(), "a.txt", upload.getNote()), upload));
+        assertFalse(_uploader.isUploaded(_attribute.buildSample(new DateTime(), "c.txt", other.getNote()), upload));
+        assertFalse(_uploader.isUploaded(null, upload));
+    }
+
+    @Test
+    public void sameContentIsLoadedWithTheNameOfEachFile() throws Exception {
+        JEVisFile first = _uploader.load(_uploader.prepare(_files.write("a.txt", "abc")));
+        JEVisFile second = _uploader.load(_uploader.prepare(_files.write("b.txt", "abc")));
+
+        assertEquals("a.txt", first.getFilename());
+        assertEquals("b.txt", second.getFilename());
+        assertArrayEquals(first.getBytes(), second.getBytes());
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.util.Arrays;
+import org.jevis.api.JEVisObject;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HandleCacheTest {
+
+    private InMemoryDataSource _server;
+    private HandleCache _cache;
+
+    @Before
+    public void setUp() throws Exception {
+        _server = new InMemoryDataSource("Root", Arrays.asList("Value"));
+        _cache = new HandleCache(_server.connect());
+    }
+
+    @Test
+    public void handlesAreFetchedOnce() throws Exception {
+        JEVisObject root = _cache.getObject(InMemoryDataSource.ROOT_ID);
+        _cache.getJEVisClass(InMemoryDataSource.ROOT_CLASS);
+        _cache.getAttribute(root, "Value");
+        long calls = _server.getCalls();
+
+        assertSame(root, _cache.getObject(InMemoryDataSource.ROOT_ID));
+        assertNotNull(_cache.getJEVisClass(InMemoryDataSource.ROOT_CLASS));
+        assertNotNull(_cache.getAttribute(root, "Value"));
+        assertNull(_cache.getAttribute(root, "Missing"));
+
+        assertEquals(calls, _server.getCalls());
+    }
+
+    @Test
+    public void missingObjectsAreCached() throws Exception {
+        assertNull(_cache.getObject(4711));
+        long calls = _server.getCalls();
+
+        assertNull(_cache.getObject(4711));
+
+        assertEquals(calls, _server.getCalls());
+    }
+
+    @Test
+    public void invalidatedObjectsAreFetchedAgain() throws Exception {
+        JEVisObject root = _cache.getObject(InMemoryDataSource.ROOT_ID);
+        JEVisObject created = root.buildObject("A", root.getJEVisClass());
+        created.commit();
+        _cache.putObject(created);
+        assertSame(created, _cache.getObject(created.getID()));
+
+        created.delete();
+        _cache.invalidate(created.getID());
+
+        assertNull(_cache.getObject(created.getID()));
+    }
+}
@@ -0,0 +1,565 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.jevis.api.JEVisAttribute;
+import org.jevis.api.JEVisClass;
+import org.jevis.api.JEVisConstants.PrimitiveType;
+import org.jevis.api.JEVisDataSource;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisFile;
+import org.jevis.api.JEVisObject;
+import org.jevis.api.JEVisSample;
+import org.jevis.api.JEVisType;
+import org.joda.time.DateTime;
+
+/**
+ * An in-memory stand-in for a JEVis server.
+ *
+ * Every connect() returns a new JEVisDataSource session on the same shared
+ * store, so a DataSourcePool with several sessions works like against a
+ * real server. Every JEVisClass exists and allows every other class as
+ * parent, every object has the same string attributes. Calls which would
+ * reach the database in JEAPI-SQL are delayed by a configurable latency.
+ *
+ * The handles are dynamic proxies. Methods of the JEVis API which are not
+ * needed by the creator are stubs returning null, false, 0 or an empty
+ * list. It is used by the tests and the benchmarks.
+ */
+public class InMemoryDataSource implements DataSourcePool.Connector {
+
+    public static final long ROOT_ID = 1;
+    public static final String ROOT_CLASS = "Organization";
+
+    // Calls answered from the handle itself in JEAPI-SQL, by interface and method
+    private static final Set<String> LOCAL_CALLS = new HashSet<String>(Arrays.asList(
+            "JEVisObject.getID", "JEVisObject.getName", "JEVisObject.buildObject",
+            "JEVisObject.getDataSource",
+            "JEVisAttribute.getName", "JEVisAttribute.getType", "JEVisAttribute.getPrimitiveType",
+            "JEVisAttribute.getObject", "JEVisAttribute.buildSample",
+            "JEVisAttribute.getTimestampFromFirstSample", "JEVisAttribute.getTimestampFromLastSample",
+            "JEVisSample.getTimestamp", "JEVisSample.getValue", "JEVisSample.getValueAsString",
+            "JEVisSample.getValueAsFile", "JEVisSample.getNote", "JEVisSample.getAttribute",
+            "JEVisClass.getName", "JEVisType.getName", "JEVisType.getPrimitiveType"));
+    // Returned by the handles for methods without implementation
+    private static final Object STUB = new Object();
+
+    private static class Node {
+
+        private Long _id;
+        private final String _name;
+        private final String _className;
+        private final long _parentID;
+        private final List<Long> _children = new ArrayList<Long>();
+        private final Map<String, TreeMap<Long, Sample>> _samples = new LinkedHashMap<String, TreeMap<Long, Sample>>();
+
+        Node(String name, String className, long parentID) {
+            this._name = name;
+            this._className = className;
+            this._parentID = parentID;
+        }
+    }
+
+    private static class Sample {
+
+        private final DateTime _timestamp;
+        private final Object _value;
+        private final String _note;
+
+        Sample(DateTime timestamp, Object value, String note) {
+            this._timestamp = timestamp;
+            this._value = value;
+            this._note = note;
+        }
+    }
+
+    private final List<String> _attributeNames;
+    private final Map<Long, Node> _objects = new HashMap<Long, Node>();
+    private final AtomicLong _calls = new AtomicLong();
+    private long _nextID = ROOT_ID;
+    private volatile long _latency;
+
+    /**
+     * @param rootName name of the root object with the ID ROOT_ID
+     * @param attributeNames attributes every object has
+     */
+    public InMemoryDataSource(String rootName, List<String> attributeNames) {
+        this._attributeNames = new ArrayList<String>(attributeNames);
+        Node root = new Node(rootName, ROOT_CLASS, 0);
+        register(root);
+    }
+
+    /**
+     * @param latency nanoseconds every database call is delayed by
+     */
+    public void setLatency(long latency) {
+        this._latency = latency;
+    }
+
+    /**
+     * @return number of database calls since the creation
+     */
+    public long getCalls() {
+        return _calls.get();
+    }
+
+    /**
+     * @return number of objects including the root
+     */
+    public synchronized int size() {
+        return _objects.size();
+    }
+
+    /**
+     * Add samples to every attribute of every object below the root, one
+     * per interval ending now
+     *
+     * @param count number of samples per attribute
+     * @param interval milliseconds between the samples
+     */
+    public synchronized void seedSamples(int count, long interval) {
+        long now = System.currentTimeMillis();
+        for (Node node : _objects.values()) {
+            if (node._id == ROOT_ID) {
+                continue;
+            }
+            for (TreeMap<Long, Sample> samples : node._samples.values()) {
+                for (int i = count - 1; i >= 0; i--) {
+                    long ts = now - i * interval;
+                    samples.put(ts, new Sample(new DateTime(ts), "seed-" + i, null));
+                }
+            }
+        }
+    }
+
+    @Override
+    public JEVisDataSource connect() throws JEVisException {
+        return proxy(JEVisDataSource.class, new DataSourceHandle());
+    }
+
+    private void register(Node node) {
+        node._id = _nextID++;
+        for (String name : _attributeNames) {
+            node._samples.put(name, new TreeMap<Long, Sample>());
+        }
+        _objects.put(node._id, node);
+        Node parent = _objects.get(node._parentID);
+        if (parent != null) {
+            parent._children.add(node._id);
+        }
+    }
+
+    private void remove(Node node) {
+        _objects.remove(node._id);
+        Node parent = _objects.get(node._parentID);
+        if (parent != null) {
+            parent._children.remove(node._id);
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, Handle handle) {
+        return type.cast(Proxy.newProxyInstance(InMemoryDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, handle));
+    }
+
+    private JEVisObject object(Node node) {
+        return node == null ? null : proxy(JEVisObject.class, new ObjectHandle(node));
+    }
+
+    private List<JEVisObject> objects(List<Node> nodes) {
+        List<JEVisObject> objects = new ArrayList<JEVisObject>(nodes.size());
+        for (Node node : nodes) {
+            objects.add(object(node));
+        }
+        return objects;
+    }
+
+    private JEVisClass jevisClass(String name) {
+        return proxy(JEVisClass.class, new ClassHandle(name));
+    }
+
+    private JEVisType type(String name) {
+        return proxy(JEVisType.class, new TypeHandle(name));
+    }
+
+    private JEVisAttribute attribute(Node node, String name) {
+        return node._samples.containsKey(name) ? proxy(JEVisAttribute.class, new AttributeHandle(node, name)) : null;
+    }
+
+    private JEVisSample sample(Sample sample, JEVisAttribute attribute) {
+        return sample == null ? null : proxy(JEVisSample.class, new SampleHandle(sample, attribute));
+    }
+
+    /**
+     * Base of all handles, delays database calls and runs them on the
+     * locked store
+     */
+    private abstract class Handle implements InvocationHandler {
+
+        /**
+         * @return identity of the handle for equals/hashCode
+         */
+        abstract Object key();
+
+        abstract Object call(String method, Object[] args) throws JEVisException;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (method.getDeclaringClass() == Object.class) {
+                if (name.equals("equals")) {
+                    return args[0] != null && Proxy.isProxyClass(args[0].getClass())
+                            && Proxy.getInvocationHandler(args[0]) instanceof Handle
+                            && key().equals(((Handle) Proxy.getInvocationHandler(args[0])).key());
+                } else if (name.equals("hashCode")) {
+                    return key().hashCode();
+                }
+                return key().toString();
+            }
+            if (!LOCAL_CALLS.contains(method.getDeclaringClass().getSimpleName() + "." + name)) {
+                _calls.incrementAndGet();
+                long latency = _latency;
+                if (latency > 0) {
+                    LockSupport.parkNanos(latency);
+                }
+            }
+            Object value;
+            synchronized (InMemoryDataSource.this) {
+                value = call(name, args);
+            }
+            return value == STUB ? stub(method.getReturnType()) : value;
+        }
+    }
+
+    private class DataSourceHandle extends Handle {
+
+        @Override
+        Object key() {
+            return this;
+        }
+
+        @Override
+        Object call(String method, Object[] args) throws JEVisException {
+            switch (method) {
+                case "connect":
+                case "disconnect":
+                case "isConnectionAlive":
+                    return true;
+                case "getObject":
+                    return object(_objects.get((Long) args[0]));
+                case "getJEVisClass":
+                    return jevisClass((String) args[0]);
+                case "getObjects":
+                    String className = ((JEVisClass) args[0]).getName();
+                    List<Node> nodes = new ArrayList<Node>();
+                    for (Node node : _objects.values()) {
+                        if (node._className.equals(className)) {
+                            nodes.add(node);
+                        }
+                    }
+                    return objects(nodes);
+                case "getRootObjects":
+                    return objects(Collections.singletonList(_objects.get(ROOT_ID)));
+                default:
+                    return STUB;
+            }
+        }
+    }
+
+    private class ObjectHandle extends Handle {
+
+        private final Node _node;
+
+        ObjectHandle(Node node) {
+            this._node = node;
+        }
+
+        @Override
+        Object key() {
+            return _node._id == null ? _node : _node._id;
+        }
+
+        @Override
+        Object call(String method, Object[] args) throws JEVisException {
+            switch (method) {
+                case "getID":
+                    return _node._id;
+                case "getName":
+                    return _node._name;
+                case "getJEVisClass":
+                    return jevisClass(_node._className);
+                case "getChildren":
+                    List<Node> children = new ArrayList<Node>(_node._children.size());
+                    for (Long id : _node._children) {
+                        children.add(_objects.get(id));
+                    }
+                    return objects(children);
+                case "getParents":
+                    Node parent = _objects.get(_node._parentID);
+                    return parent == null ? new ArrayList<JEVisObject>() : objects(Collections.singletonList(parent));
+                case "getAttributes":
+                    List<JEVisAttribute> attributes = new ArrayList<JEVisAttribute>();
+                    for (String name : _node._samples.keySet()) {
+                        attributes.add(attribute(_node, name));
+                    }
+                    return attributes;
+                case "getAttribute":
+                    return attribute(_node, (String) args[0]);
+                case "buildObject":
+                    return object(new Node((String) args[0], ((JEVisClass) args[1]).getName(), _node._id));
+                case "commit":
+                    if (_node._id == null) {
+                        register(_node);
+                    }
+                    return null;
+                case "delete":
+                    remove(_node);
+                    return true;
+                case "getDataSource":
+                    return connect();
+                default:
+                    return STUB;
+            }
+        }
+    }
+
+    private class ClassHandle extends Handle {
+
+        private final String _name;
+
+        ClassHandle(String name) {
+            this._name = name;
+        }
+
+        @Override
+        Object key() {
+            return _name;
+        }
+
+        @Override
+        Object call(String method, Object[] args) throws JEVisException {
+            switch (method) {
+                case "getName":
+                    return _name;
+                case "isAllowedUnder":
+                    return true;
+                case "getTypes":
+                    List<JEVisType> types = new ArrayList<JEVisType>();
+                    for (String name : _attributeNames) {
+                        types.add(type(name));
+                    }
+                    return types;
+                case "getType":
+                    return _attributeNames.contains((String) args[0]) ? type((String) args[0]) : null;
+                default:
+                    return STUB;
+            }
+        }
+    }
+
+    private class TypeHandle extends Handle {
+
+        private final String _name;
+
+        TypeHandle(String name) {
+            this._name = name;
+        }
+
+        @Override
+        Object key() {
+            return _name;
+        }
+
+        @Override
+        Object call(String method, Object[] args) throws JEVisException {
+            switch (method) {
+                case "getName":
+                    return _name;
+                case "getPrimitiveType":
+                    return PrimitiveType.STRING;
+                default:
+                    return STUB;
+            }
+        }
+    }
+
+    private class AttributeHandle extends Handle {
+
+        private final Node _node;
+        private final String _name;
+
+        AttributeHandle(Node node, String name) {
+            this._node = node;
+            this._name = name;
+        }
+
+        @Override
+        Object key() {
+            return _node._id + "/" + _name;
+        }
+
+        private JEVisSample latest() {
+            Map.Entry<Long, Sample> last = samples().lastEntry();
+            return last == null ? null : sample(last.getValue(), self());
+        }
+
+        private JEVisAttribute self() {
+            return proxy(JEVisAttribute.class, this);
+        }
+
+        private TreeMap<Long, Sample> samples() {
+            return _node._samples.get(_name);
+        }
+
+        private List<JEVisSample> list(Map<Long, Sample> samples) {
+            List<JEVisSample> list = new ArrayList<JEVisSample>(samples.size());
+            for (Sample sample : samples.values()) {
+                list.add(sample(sample, self()));
+            }
+            return list;
+        }
+
+        @Override
+        Object call(String method, Object[] args) throws JEVisException {
+            switch (method) {
+                case "getName":
+                    return _name;
+                case "getType":
+                    return type(_name);
+                case "getPrimitiveType":
+                    return PrimitiveType.STRING;
+                case "getObject":
+                    return object(_node);
+                case "getAllSamples":
+                    return list(samples());
+                case "getSamples":
+                    return list(samples().subMap(((DateTime) args[0]).getMillis(), true,
+                            ((DateTime) args[1]).getMillis(), true));
+                case "buildSample":
+                    DateTime ts = args[0] == null ? new DateTime() : (DateTime) args[0];
+                    String note = args.length > 2 ? (String) args[2] : null;
+                    return sample(new Sample(ts, args[1], note), self());
+                case "addSamples":
+                    List<?> added = (List<?>) args[0];
+                    for (Object sample : added) {
+                        add((JEVisSample) sample);
+                    }
+                    return added.size();
+                case "getLatestSample":
+                    return latest();
+                case "hasSample":
+                    return !samples().isEmpty();
+                case "getTimestampFromFirstSample":
+                    return samples().isEmpty() ? null : samples().firstEntry().getValue()._timestamp;
+                case "getTimestampFromLastSample":
+                    return samples().isEmpty() ? null : samples().lastEntry().getValue()._timestamp;
+                case "deleteAllSample":
+                    samples().clear();
+                    return true;
+                case "deleteSamplesBetween":
+                    samples().subMap(((DateTime) args[0]).getMillis(), true,
+                            ((DateTime) args[1]).getMillis(), true).clear();
+                    return true;
+                default:
+                    return STUB;
+            }
+        }
+
+        private void add(JEVisSample sample) throws JEVisException {
+            Sample data = ((SampleHandle) handleOf(sample))._sample;
+            samples().put(data._timestamp.getMillis(), data);
+        }
+    }
+
+    private class SampleHandle extends Handle {
+
+        private final Sample _sample;
+        private final JEVisAttribute _attribute;
+
+        SampleHandle(Sample sample, JEVisAttribute attribute) {
+            this._sample = sample;
+            this._attribute = attribute;
+        }
+
+        @Override
+        Object key() {
+            return _sample;
+        }
+
+        @Override
+        Object call(String method, Object[] args) throws JEVisException {
+            switch (method) {
+                case "getTimestamp":
+                    return _sample._timestamp;
+                case "getValue":
+                    return _sample._value;
+                case "getValueAsString":
+                    return _sample._value == null ? null : _sample._value.toString();
+                case "getValueAsFile":
+                    return _sample._value instanceof JEVisFile ? _sample._value : null;
+                case "getNote":
+                    return _sample._note;
+                case "getAttribute":
+                    return _attribute;
+                case "commit":
+                    ((AttributeHandle) handleOf(_attribute)).add(proxy(JEVisSample.class, this));
+                    return null;
+                default:
+                    return STUB;
+            }
+        }
+    }
+
+    /**
+     * @return the neutral value of a method without implementation
+     */
+    private static Object stub(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == double.class) {
+            return 0.0;
+        } else if (List.class.isAssignableFrom(type)) {
+            return new ArrayList<Object>();
+        }
+        return null;
+    }
+
+    private static InvocationHandler handleOf(Object proxy) {
+        return Proxy.getInvocationHandler(proxy);
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+package org.jevis.structurecreator;
+
+import java.util.Arrays;
+import org.jevis.api.JEVisDataSource;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisObject;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class InMemoryDataSourceTest {
+
+    private final InMemoryDataSource _server = new InMemoryDataSource("Root", Arrays.asList("Value"));
+
+    @Test
+    public void countsDataSourceCallsOfLocalMethodNames() throws JEVisException {
+        JEVisDataSource ds = _server.connect();
+        long calls = _server.getCalls();
+        JEVisObject root = ds.getObject(InMemoryDataSource.ROOT_ID);
+        assertEquals("JEVisDataSource.getObject reaches the database", calls + 1, _server.getCalls());
+
+        root.getID();
+        root.getName();
+        assertEquals("handle getters are local", calls + 1, _server.getCalls());
+
+        root.getAttribute("Value");
+        assertEquals("JEVisObject.getAttribute reaches the database", calls + 2, _server.getCalls());
+    }
+
+    @Test
+    public void stubsMethodsWithoutImplementation() throws JEVisException {
+        JEVisDataSource ds = _server.connect();
+        assertNull(ds.getCurrentUser());
+        JEVisObject root = ds.getObject(InMemoryDataSource.ROOT_ID);
+        assertNull(root.getAttribute("Value").getLatestSample());
+        assertFalse(root.getAttribute("Value").hasSample());
+    }
+
+    @Test
+    public void sharesTheStoreBetweenSessions() throws JEVisException {
+        JEVisObject root = _server.connect().getObject(InMemoryDataSource.ROOT_ID);
+        JEVisObject child = root.buildObject("Child", root.getJEVisClass());
+        child.commit();
+
+        assertEquals(2, _server.size());
+        assertTrue(_server.connect().getObject(child.getID()) != null);
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import org.jevis.api.JEVisAttribute;
+import org.jevis.api.JEVisDataSource;
+import org.jevis.api.JEVisObject;
+import org.jevis.api.JEVisSample;
+import org.joda.time.DateTime;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InstrumentedDataSourceTest {
+
+    private InMemoryDataSource _server;
+    private Metrics _metrics;
+    private JEVisDataSource _ds;
+
+    @Before
+    public void setUp() throws Exception {
+        _server = new InMemoryDataSource("Root", Arrays.asList("Value"));
+        _metrics = new Metrics();
+        _ds = InstrumentedDataSource.wrap(_server.connect(), _metrics);
+    }
+
+    @Test
+    public void callsAreCountedPerInterface() throws Exception {
+        JEVisObject root = _ds.getObject(InMemoryDataSource.ROOT_ID);
+        root.getName();
+        root.getName();
+        root.getAttribute("Value").getLatestSample();
+
+        assertEquals(Long.valueOf(1), _metrics.getDataSourceCallCounts().get("JEVisDataSource.getObject"));
+        assertEquals(Long.valueOf(2), _metrics.getDataSourceCallCounts().get("JEVisObject.getName"));
+        assertEquals(Long.valueOf(1), _metrics.getDataSourceCallCounts().get("JEVisAttribute.getLatestSample"));
+        assertEquals(5, _metrics.getDataSourceCalls());
+    }
+
+    @Test
+    public void listElementsAreWrappedOnAccess() throws Exception {
+        JEVisObject root = _server.connect().getObject(InMemoryDataSource.ROOT_ID);
+        for (int i = 0; i < 3; i++) {
+            root.buildObject("Child " + i, root.getJEVisClass()).commit();
+        }
+
+        List<JEVisObject> children = _ds.getObject(InMemoryDataSource.ROOT_ID).getChildren();
+
+        assertEquals(3, children.size());
+        assertTrue(isInstrumented(children.get(1)));
+        children.get(1).getName();
+        assertEquals(Long.valueOf(1), _metrics.getDataSourceCallCounts().get("JEVisObject.getName"));
+    }
+
+    @Test
+    public void samplesAreNotWrapped() throws Exception {
+        JEVisAttribute attribute = _ds.getObject(InMemoryDataSource.ROOT_ID).getAttribute("Value");
+        assertTrue(isInstrumented(attribute));
+        attribute.addSamples(Arrays.asList(attribute.buildSample(new DateTime(), "1")));
+
+        JEVisSample sample = attribute.getAllSamples().get(0);
+
+        assertFalse(isInstrumented(sample));
+        assertEquals("1", sample.getValue());
+    }
+
+    @Test
+    public void reportHoldsOperationsAndCalls() throws Exception {
+        _metrics.getOperation(Metrics.Operation.DELETE).record(3000000);
+        _ds.getObject(InMemoryDataSource.ROOT_ID);
+        StringWriter out = new StringWriter();
+
+        _metrics.writeReport(out, new RunSummary());
+
+        assertTrue(out.toString().contains("\"DELETE\""));
+        assertTrue(out.toString().contains("\"JEVisDataSource.getObject\""));
+    }
+
+    @Test
+    public void percentilesAreBucketUpperBounds() {
+        Metrics.Histogram histogram = new Metrics.Histogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1000000);
+        }
+        histogram.record(100000000);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(100.0, histogram.getMaxMillis(), 0.001);
+        // 1 ms falls into the bucket up to 1024 us
+        assertEquals(1.024, histogram.getPercentileMillis(0.5), 0.001);
+        assertEquals(100.0, histogram.getPercentileMillis(1.0), 0.001);
+    }
+
+    private static boolean isInstrumented(Object value) {
+        return Proxy.isProxyClass(value.getClass())
+                && Proxy.getInvocationHandler(value).getClass().getEnclosingClass() == InstrumentedDataSource.class;
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.jevis.commons.json.JsonObject;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+public class JsonStructureReaderTest {
+
+    /**
+     * Records every enter and leave as "name@position" with the path of the
+     * parent
+     */
+    private static class Recorder implements JsonStructureReader.NodeHandler<String> {
+
+        private final List<String> _events = new ArrayList<String>();
+        private final JsonStructureReader _reader;
+        private final String _skip;
+
+        Recorder(JsonStructureReader reader, String skip) {
+            this._reader = reader;
+            this._skip = skip;
+        }
+
+        @Override
+        public String enter(JsonObject node, String parent) {
+            _events.add("enter " + node.getName() + "@" + ((StructureNode) node).getPosition() + " under " + parent);
+            assertTrue(node.getChildren() == null || node.getChildren().isEmpty());
+            if (node.getName().equals(_skip)) {
+                _reader.skipCurrentChildren();
+            }
+            return parent + "/" + node.getName();
+        }
+
+        @Override
+        public void leave(JsonObject node, String context) {
+            _events.add("leave " + context);
+        }
+    }
+
+    private static JsonStructureReader reader(String json) {
+        return new JsonStructureReader(new StringReader(json.replace('\'', '"')));
+    }
+
+    private static List<String> stream(String json, String skip) throws Exception {
+        JsonStructureReader reader = reader(json);
+        try {
+            JsonObject root = reader.readRoot();
+            Recorder recorder = new Recorder(reader, skip);
+            reader.readChildren(recorder, root.getName());
+            return recorder._events;
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void streamsNodesDepthFirst() throws Exception {
+        List<String> events = stream("{'id': 1, 'name': 'Root', 'jevisclass': 'Organization', 'children': ["
+                + "{'id': 0, 'name': 'A', 'jevisclass': 'Building', 'children': [{'name': 'A1'}, {'name': 'A2'}]},"
+                + "{'id': 0, 'name': 'B', 'jevisclass': 'Building'}]}", null);
+
+        assertEquals(Arrays.asList(
+                "enter A@0 under Root",
+                "enter A1@0/0 under Root/A",
+                "leave Root/A/A1",
+                "enter A2@0/1 under Root/A",
+                "leave Root/A/A2",
+                "leave Root/A",
+                "enter B@1 under Root",
+                "leave Root/B"), events);
+    }
+
+    @Test
+    public void readsTheHeaderOfEveryNode() throws Exception {
+        JsonStructureReader reader = reader("{'id': 7, 'name': 'Root', 'jevisclass': 'Organization', "
+                + "'attributes': [{'name': 'Value', 'lastvalue': '42'}], 'children': []}");
+        JsonObject root = reader.readRoot();
+        reader.skipChildren();
+        reader.close();
+
+        assertEquals(7, root.getId());
+        assertEquals("Organization", root.getJevisClass());
+        assertEquals("Value", root.getAttributes().get(0).getName());
+        assertEquals("42", root.getAttributes().get(0).getLastvalue());
+    }
+
+    @Test
+    public void skippedChildrenAreNotStreamed() throws Exception {
+        List<String> events = stream("{'id': 1, 'name': 'Root', 'jevisclass': 'Organization', 'children': ["
+                + "{'name': 'A', 'children': [{'name': 'A1', 'children': [{'name': 'A11'}]}]},"
+                + "{'name': 'B'}]}", "A");
+
+        assertEquals(Arrays.asList(
+                "enter A@0 under Root",
+                "leave Root/A",
+                "enter B@1 under Root",
+                "leave Root/B"), events);
+    }
+
+    /**
+     * Collects every streamed node
+     */
+    private static List<JsonObject> nodes(String json) throws Exception {
+        final List<JsonObject> nodes = new ArrayList<JsonObject>();
+        JsonStructureReader reader = reader(json);
+        try {
+            reader.readRoot();
+            reader.readChildren(new JsonStructureReader.NodeHandler<Void>() {
+                @Override
+                public Void enter(JsonObject node, Void parent) {
+                    nodes.add(node);
+                    return null;
+                }
+
+                @Override
+                public void leave(JsonObject node, Void context) {
+                }
+            }, null);
+        } finally {
+            reader.close();
+        }
+        return nodes;
+    }
+
+    @Test
+    public void repeatedTemplatesAreSubstituted() throws Exception {
+        List<JsonObject> nodes = nodes("{'id': 1, 'name': 'Root', 'jevisclass': 'Organization', "
+                + "'templates': {'Meter': {'id': '100${i}', 'name': 'Meter ${i} ${building}', 'jevisclass': 'Data', "
+                + "'attributes': [{'name': 'Value Unit', 'lastvalue': '${unit}'}]}}, 'children': ["
+                + "{'template': 'Meter', 'params': {'building': 'A', 'unit': 'kWh'}, 'repeat': {'from': 1, 'to': 3}}]}");
+
+        assertEquals(3, nodes.size());
+        for (int i = 0; i < 3; i++) {
+            JsonObject node = nodes.get(i);
+            assertEquals("Meter " + (i + 1) + " A", node.getName());
+            assertEquals(1001 + i, node.getId());
+            assertEquals("0." + i, ((StructureNode) node).getPosition());
+            assertEquals("kWh", node.getAttributes().get(0).getLastvalue());
+        }
+    }
+
+    @Test
+    public void templatesMayUseTemplates() throws Exception {
+        List<String> events = stream("{'id': 1, 'name': 'Root', 'jevisclass': 'Organization', 'templates': {"
+                + "'Meter': {'name': 'Meter ${n}'},"
+                + "'Building': {'name': 'Building ${i}', 'children': [{'template': 'Meter', 'repeat': {'var': 'n', 'from': 1, 'to': 2}}]}},"
+                + "'children': [{'template': 'Building', 'repeat': {'from': 1, 'to': 2}}]}", null);
+
+        assertEquals(Arrays.asList(
+                "enter Building 1@0.0 under Root",
+                "enter Meter 1@0.0/0.0 under Root/Building 1",
+                "leave Root/Building 1/Meter 1",
+                "enter Meter 2@0.0/0.1 under Root/Building 1",
+                "leave Root/Building 1/Meter 2",
+                "leave Root/Building 1",
+                "enter Building 2@0.1 under Root",
+                "enter Meter 1@0.1/0.0 under Root/Building 2",
+                "leave Root/Building 2/Meter 1",
+                "enter Meter 2@0.1/0.1 under Root/Building 2",
+                "leave Root/Building 2/Meter 2",
+                "leave Root/Building 2"), events);
+    }
+
+    @Test
+    public void unknownTemplatesAreRejected() throws Exception {
+        try {
+            nodes("{'id': 1, 'name': 'Root', 'jevisclass': 'Organization', 'children': [{'template': 'Missing'}]}");
+            fail("Expected an IOException");
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage().contains("Missing"));
+        }
+    }
+}
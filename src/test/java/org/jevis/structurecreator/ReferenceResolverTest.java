@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import org.jevis.api.JEVisDataSource;
+import org.jevis.api.JEVisObject;
+import org.jevis.commons.json.JsonAttribute;
+import org.jevis.commons.json.JsonObject;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReferenceResolverTest {
+
+    private TestFiles _files;
+
+    @Before
+    public void setUp() throws Exception {
+        _files = new TestFiles();
+    }
+
+    @After
+    public void tearDown() {
+        _files.delete();
+    }
+
+    @Test
+    public void parsesReferences() {
+        assertEquals(Long.valueOf(42), ReferenceResolver.parse("$(REF)42"));
+        assertNull(ReferenceResolver.parse("42"));
+        assertNull(ReferenceResolver.parse("$(REF)x"));
+    }
+
+    @Test
+    public void defersUnknownReferences() {
+        ReferenceResolver resolver = new ReferenceResolver();
+        resolver.put(1, 100);
+
+        assertEquals(Long.valueOf(100), resolver.resolve(7, "Target", 1));
+        assertNull(resolver.resolve(7, "Other", 2));
+
+        List<ReferenceResolver.Deferred> deferred = resolver.drain();
+        assertEquals(1, deferred.size());
+        assertEquals(7, deferred.get(0).getObjectID());
+        assertEquals("Other", deferred.get(0).getAttributeName());
+        assertEquals(2, deferred.get(0).getRefID());
+        assertTrue(resolver.drain().isEmpty());
+    }
+
+    @Test
+    public void collectsConsumers() {
+        JsonObject node = new JsonObject();
+        JsonAttribute ref = new JsonAttribute();
+        ref.setName("Target");
+        ref.setLastvalue("$(REF)3");
+        JsonAttribute plain = new JsonAttribute();
+        plain.setName("Value");
+        plain.setLastvalue("3");
+        node.setAttributes(Arrays.asList(ref, plain));
+
+        assertEquals(1, ReferenceResolver.collectConsumers(node).size());
+        assertTrue(ReferenceResolver.collectConsumers(node).contains(3L));
+    }
+
+    @Test
+    public void streamedFileDoesNotResolveToEarlierFile() throws Exception {
+        assertResolvesWithinFile(1);
+    }
+
+    @Test
+    public void parallelFileDoesNotResolveToEarlierFile() throws Exception {
+        assertResolvesWithinFile(2);
+    }
+
+    /**
+     * The second file uses $(REF)1 before the node producing it, the first
+     * file produced $(REF)1 as well
+     */
+    private void assertResolvesWithinFile(int parallelism) throws Exception {
+        InMemoryDataSource server = new InMemoryDataSource("Root", Arrays.asList("Target"));
+        File first = _files.write("first.json", "{'id': 1, 'name': 'Root', 'jevisclass': 'Organization', 'children': ["
+                + "{'id': 1, 'name': 'First', 'jevisclass': 'Building'}]}");
+        File second = _files.write("second.json", "{'id': 1, 'name': 'Root', 'jevisclass': 'Organization', 'children': ["
+                + "{'id': 0, 'name': 'User', 'jevisclass': 'Building', 'attributes': [{'name': 'Target', 'lastvalue': '$(REF)1'}]},"
+                + "{'id': 1, 'name': 'Second', 'jevisclass': 'Building'}]}");
+
+        JSON2JEVisStructureCreator creator = new JSON2JEVisStructureCreator();
+        creator.setParallelism(parallelism);
+        creator.setPoolSize(parallelism);
+        assertTrue(creator.connectToJEVis(server));
+        try {
+            creator.processJSONFile(first.getPath());
+            creator.processJSONFile(second.getPath());
+        } finally {
+            creator.disconnect();
+        }
+
+        JEVisDataSource ds = server.connect();
+        JEVisObject target = TestFiles.find(ds, "Second");
+        assertEquals(target.getID().toString(), TestFiles.latest(TestFiles.find(ds, "User"), "Target"));
+    }
+}
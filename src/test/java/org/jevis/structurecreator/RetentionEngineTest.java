@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import com.google.gson.Gson;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisObject;
+import org.jevis.api.JEVisSample;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RetentionEngineTest {
+
+    private static final long MINUTE = 60000;
+
+    private InMemoryDataSource _server;
+    private DataSourcePool _pool;
+    private RetentionEngine _engine;
+    private JEVisObject _site;
+    private JEVisObject _meter;
+
+    @Before
+    public void setUp() throws Exception {
+        _server = new InMemoryDataSource("Root", Arrays.asList("Value"));
+        _pool = new DataSourcePool(_server, new Metrics());
+        _pool.open(2);
+        _engine = new RetentionEngine(_pool, 2);
+        JEVisObject root = _server.connect().getObject(InMemoryDataSource.ROOT_ID);
+        _site = create(root, "Site");
+        _meter = create(_site, "Meter");
+        _server.seedSamples(10, MINUTE);
+    }
+
+    @After
+    public void tearDown() {
+        _pool.close();
+    }
+
+    @Test
+    public void policiesAreReadFromJson() {
+        assertEquals(3, policy("{'keeplatest': 3}").getKeepLatest());
+        assertEquals(30 * 24 * 60 * MINUTE, policy("{'keepnewerthan': 'P30D'}").getKeepNewerThan());
+        assertEquals(15 * MINUTE, policy("{'oneper': 'PT15M'}").getOnePer());
+        assertEquals(1, policy("{}").getKeepLatest());
+        assertEquals(-1, policy("{}").getOnePer());
+    }
+
+    @Test
+    public void keepLatest() throws Exception {
+        prune(_meter, false, policy("{'keeplatest': 3}"));
+
+        assertEquals(3, samples(_meter).size());
+        assertEquals(10, samples(_site).size());
+    }
+
+    @Test
+    public void sparseHistoryIsSearchedInGrowingWindows() throws Exception {
+        // 10 recent samples and 9 older ones, 100 days apart
+        _server.seedSamples(10, 100 * 24 * 60 * MINUTE);
+        long calls = _server.getCalls();
+
+        prune(_meter, false, policy("{'keeplatest': 12}"));
+
+        assertEquals(12, samples(_meter).size());
+        // Day by day this would take more than 200 reads
+        assertTrue(_server.getCalls() - calls < 40);
+    }
+
+    @Test
+    public void withoutPolicyOnlyTheLatestIsKept() throws Exception {
+        long latest = last(samples(_meter));
+
+        prune(_site, true, null);
+
+        assertEquals(1, samples(_site).size());
+        assertEquals(1, samples(_meter).size());
+        assertEquals(latest, last(samples(_meter)));
+    }
+
+    @Test
+    public void keepNewerThan() throws Exception {
+        prune(_meter, false, policy("{'keepnewerthan': 'PT5M30S'}"));
+
+        assertEquals(6, samples(_meter).size());
+    }
+
+    @Test
+    public void onePerIntervalInSmallWindows() throws Exception {
+        Set<Long> intervals = new HashSet<Long>();
+        for (JEVisSample sample : samples(_meter)) {
+            intervals.add(sample.getTimestamp().getMillis() / (3 * MINUTE));
+        }
+        _engine.setWindow(2 * MINUTE);
+
+        prune(_meter, false, policy("{'oneper': 'PT3M'}"));
+
+        assertEquals(intervals.size(), samples(_meter).size());
+    }
+
+    private void prune(final JEVisObject object, final boolean recursive, final RetentionPolicy policy) throws JEVisException {
+        _pool.execute(new DataSourcePool.Work<Void>() {
+            @Override
+            public Void run(DataSourcePool.Session session) throws JEVisException {
+                _engine.prune(session.getCache().getObject(object.getID()), recursive, policy);
+                return null;
+            }
+        });
+    }
+
+    private static RetentionPolicy policy(String json) {
+        return new Gson().fromJson(json.replace('\'', '"'), RetentionPolicy.class);
+    }
+
+    private List<JEVisSample> samples(JEVisObject object) throws JEVisException {
+        return _server.connect().getObject(object.getID()).getAttribute("Value").getAllSamples();
+    }
+
+    private static long last(List<JEVisSample> samples) throws JEVisException {
+        return samples.get(samples.size() - 1).getTimestamp().getMillis();
+    }
+
+    private static JEVisObject create(JEVisObject parent, String name) throws JEVisException {
+        JEVisObject object = parent.buildObject(name, parent.getJEVisClass());
+        object.commit();
+        return object;
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.util.Arrays;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisObject;
+import org.jevis.commons.json.JsonObject;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RootResolverTest {
+
+    private InMemoryDataSource _server;
+    private DataSourcePool _pool;
+    private RootResolver _resolver;
+    private JEVisObject _root;
+
+    @Before
+    public void setUp() throws Exception {
+        _server = new InMemoryDataSource("Root", Arrays.asList("Value"));
+        _pool = new DataSourcePool(_server, new Metrics());
+        _pool.open(1);
+        _resolver = new RootResolver(new ChildIndex());
+        _root = _server.connect().getObject(InMemoryDataSource.ROOT_ID);
+    }
+
+    @After
+    public void tearDown() {
+        _pool.close();
+    }
+
+    @Test
+    public void resolvesByIdAndChecksTheName() throws Exception {
+        assertEquals(_root.getID(), resolve(header(InMemoryDataSource.ROOT_ID, "Root", null)).getID());
+        assertNull(resolve(header(InMemoryDataSource.ROOT_ID, "Other", null)));
+        assertNull(resolve(header(4711, "Root", null)));
+    }
+
+    @Test
+    public void resolvesByNameFromAnIndex() throws Exception {
+        JEVisObject site = create(_root, "Site");
+        assertEquals(site.getID(), resolve(header(0, "Site", null)).getID());
+        long calls = _server.getCalls();
+
+        assertEquals(site.getID(), resolve(header(0, "Site", null)).getID());
+
+        // Only the class of the found object is checked, the objects of the
+        // class are not listed again
+        assertTrue(_server.getCalls() - calls <= 1);
+    }
+
+    @Test
+    public void findsObjectsCreatedAfterTheIndex() throws Exception {
+        create(_root, "Site");
+        resolve(header(0, "Site", null));
+        JEVisObject later = create(_root, "Later");
+
+        assertEquals(later.getID(), resolve(header(0, "Later", null)).getID());
+    }
+
+    @Test
+    public void resolvesByPath() throws Exception {
+        JEVisObject meter = create(create(_root, "Site"), "Meter");
+
+        assertEquals(meter.getID(), resolve(header(0, "Meter", "Root/Site/Meter")).getID());
+        assertNull(resolve(header(0, "Meter", "Root/Missing/Meter")));
+    }
+
+    private JEVisObject resolve(final JsonObject header) throws JEVisException {
+        return _pool.execute(new DataSourcePool.Work<JEVisObject>() {
+            @Override
+            public JEVisObject run(DataSourcePool.Session session) throws JEVisException {
+                return _resolver.resolve(header, session);
+            }
+        });
+    }
+
+    private static JsonObject header(long id, String name, String path) {
+        StructureNode header = new StructureNode();
+        header.setId(id);
+        header.setName(name);
+        header.setJevisClass(InMemoryDataSource.ROOT_CLASS);
+        header.setPath(path);
+        return header;
+    }
+
+    private static JEVisObject create(JEVisObject parent, String name) throws JEVisException {
+        JEVisObject object = parent.buildObject(name, parent.getJEVisClass());
+        object.commit();
+        return object;
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.io.File;
+import java.util.Arrays;
+import org.jevis.api.JEVisAttribute;
+import org.jevis.api.JEVisConstants.PrimitiveType;
+import org.jevis.api.JEVisObject;
+import org.junit.After;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SampleImporterTest {
+
+    private TestFiles _files;
+    private SampleImporter _importer;
+    private JEVisAttribute _attribute;
+
+    @Before
+    public void setUp() throws Exception {
+        _files = new TestFiles();
+        _importer = new SampleImporter(new Metrics(), new RunSummary());
+        InMemoryDataSource server = new InMemoryDataSource("Root", Arrays.asList("Value"));
+        JEVisObject root = server.connect().getObject(InMemoryDataSource.ROOT_ID);
+        JEVisObject meter = root.buildObject("Meter", root.getJEVisClass());
+        meter.commit();
+        _attribute = meter.getAttribute("Value");
+    }
+
+    @After
+    public void tearDown() {
+        _files.delete();
+    }
+
+    @Test
+    public void separatorIsTheFirstOneInTheLine() {
+        assertEquals(';', SampleImporter.detectSeparator("2020-01-01T00:00:00Z;1,5"));
+        assertEquals('\t', SampleImporter.detectSeparator("ts\tvalue,unit"));
+        assertEquals(',', SampleImporter.detectSeparator("ts,value"));
+        assertEquals(0, SampleImporter.detectSeparator("ts value"));
+        assertArrayEquals(new String[]{"1000", "1,5"}, SampleImporter.parseCsv("1000;\"1,5\"", ';'));
+    }
+
+    @Test
+    public void separatorOfTheHeaderIsUsedForTheWholeFile() throws Exception {
+        long imported = _importer.importSamples(_attribute, PrimitiveType.STRING,
+                _files.write("meter.csv", "timestamp;value\n1000;1,5\n2000;2,5\n"));
+
+        assertEquals(2, imported);
+        assertEquals("2,5", _attribute.getLatestSample().getValue());
+    }
+
+    @Test
+    public void decimalCommaIsReadInSemicolonSeparatedFiles() throws Exception {
+        long imported = _importer.importSamples(_attribute, PrimitiveType.DOUBLE,
+                _files.write("meter.csv", "timestamp;value\n1000;1,5\n2000;2,5\n"));
+
+        assertEquals(2, imported);
+        assertEquals(2.5, _attribute.getLatestSample().getValue());
+        assertEquals(1.5, SampleImporter.parseValue("1,5", PrimitiveType.DOUBLE, true));
+        assertEquals(null, SampleImporter.parseValue("1,5", PrimitiveType.DOUBLE, false));
+    }
+
+    @Test
+    public void importedSamplesAreSkippedWhenRunAgain() throws Exception {
+        File meter = _files.write("meter.csv", "ts,value\n1000,1\n2000,2\n");
+        assertEquals(2, _importer.importSamples(_attribute, PrimitiveType.DOUBLE, meter));
+
+        _files.write("meter.csv", "ts,value\n1000,1\n2000,2\n3000,3\n");
+        assertEquals(1, _importer.importSamples(_attribute, PrimitiveType.DOUBLE, meter));
+        assertEquals(3.0, _attribute.getLatestSample().getValue());
+    }
+
+    @Test
+    public void ndjsonSkipsInvalidLines() throws Exception {
+        long imported = _importer.importSamples(_attribute, PrimitiveType.DOUBLE, _files.write("meter.ndjson",
+                "{'ts': '1970-01-01T00:00:01Z', 'value': '1'}\nnot json\n{'timestamp': 2000, 'value': '2'}\n"));
+
+        assertEquals(2, imported);
+        assertEquals(2.0, _attribute.getLatestSample().getValue());
+    }
+}
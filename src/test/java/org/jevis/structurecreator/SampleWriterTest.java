@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.util.Arrays;
+import org.jevis.api.JEVisAttribute;
+import org.jevis.api.JEVisObject;
+import org.joda.time.DateTime;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SampleWriterTest {
+
+    private InMemoryDataSource _server;
+    private SampleWriter _writer;
+    private JEVisAttribute _attribute;
+
+    @Before
+    public void setUp() throws Exception {
+        _server = new InMemoryDataSource("Root", Arrays.asList("Value"));
+        _writer = new SampleWriter(new Metrics());
+        _writer.setCache(new HandleCache(_server.connect()));
+        JEVisObject root = _server.connect().getObject(InMemoryDataSource.ROOT_ID);
+        _attribute = root.getAttribute("Value");
+    }
+
+    @Test
+    public void samplesAreCommittedWhenTheBatchIsFull() throws Exception {
+        _writer.setBatchSize(3);
+        add(1);
+        add(2);
+        assertNull(_attribute.getLatestSample());
+        assertEquals("2", _writer.getLastPending(_attribute).getValue());
+
+        add(3);
+
+        assertEquals("3", _attribute.getLatestSample().getValue());
+        assertNull(_writer.getLastPending(_attribute));
+    }
+
+    @Test
+    public void samplesOfOneAttributeShareOneCall() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            add(i);
+        }
+        long calls = _server.getCalls();
+
+        _writer.flush();
+
+        assertEquals(calls + 1, _server.getCalls());
+        assertEquals(5, _attribute.getAllSamples().size());
+    }
+
+    @Test
+    public void oldSamplesAreCommittedAfterTheFlushInterval() throws Exception {
+        _writer.setFlushInterval(0);
+
+        add(1);
+
+        assertEquals("1", _attribute.getLatestSample().getValue());
+    }
+
+    private void add(int value) throws Exception {
+        _writer.add(_attribute, _attribute.buildSample(new DateTime(value * 1000L), String.valueOf(value)));
+    }
+}
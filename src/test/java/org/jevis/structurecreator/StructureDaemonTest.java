@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.io.File;
+import java.util.Arrays;
+import org.jevis.api.JEVisDataSource;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StructureDaemonTest {
+
+    private InMemoryDataSource _server;
+    private JSON2JEVisStructureCreator _creator;
+    private StructureDaemon _daemon;
+    private TestFiles _files;
+
+    @Before
+    public void setUp() throws Exception {
+        _server = new InMemoryDataSource("Root", Arrays.asList("Value"));
+        _creator = new JSON2JEVisStructureCreator();
+        _creator.setIncremental(true);
+        _creator.setPoolSize(2);
+        assertTrue(_creator.connectToJEVis(_server));
+        _daemon = new StructureDaemon(_creator, 2);
+        _daemon.setSettleTime(20);
+        _files = new TestFiles();
+    }
+
+    @After
+    public void tearDown() {
+        _daemon.stop();
+        _creator.disconnect();
+        _files.delete();
+    }
+
+    @Test
+    public void keepsSideFilesOutOfTheWatchedDirectory() throws Exception {
+        File dir = _files.getDir();
+        _daemon.watch(dir);
+        File incoming = new File(_files.write("tmp/site.json", "{'id': 1, 'name': 'Root', 'jevisclass': 'Organization', 'children': ["
+                + "{'id': 1, 'name': 'Site', 'jevisclass': 'Building', 'attributes': [{'name': 'Value', 'lastvalue': '$(REF)1'}]}]}").getPath());
+        // Move the finished file in, like a producer should
+        assertTrue(incoming.renameTo(new File(dir, "site.json")));
+
+        File processed = new File(new File(dir, StructureDaemon.PROCESSED_DIR), "site.json");
+        for (int i = 0; i < 500 && !processed.exists(); i++) {
+            Thread.sleep(20);
+        }
+
+        assertTrue(processed.exists());
+        assertTrue(new File(new File(dir, StructureDaemon.STATE_DIR), "site.json" + StructureState.SUFFIX).exists());
+        assertFalse(new File(dir, "site.json" + StructureState.SUFFIX).exists());
+        JEVisDataSource ds = _server.connect();
+        assertNotNull(TestFiles.find(ds, "Site"));
+        assertEquals(TestFiles.find(ds, "Site").getID().toString(), TestFiles.latest(TestFiles.find(ds, "Site"), "Value"));
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.jevis.api.JEVisAttribute;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisObject;
+import org.joda.time.DateTime;
+import org.junit.After;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StructureExporterTest {
+
+    private InMemoryDataSource _server;
+    private JSON2JEVisStructureCreator _creator;
+    private TestFiles _files;
+    private JEVisObject _site;
+    private JEVisObject _meter;
+    private JEVisObject _other;
+    private JEVisObject _outside;
+
+    @Before
+    public void setUp() throws Exception {
+        _server = new InMemoryDataSource("Root", Arrays.asList("Value", "Target"));
+        _creator = new JSON2JEVisStructureCreator();
+        assertTrue(_creator.connectToJEVis(_server));
+        _files = new TestFiles();
+        JEVisObject root = _server.connect().getObject(InMemoryDataSource.ROOT_ID);
+        _site = create(root, "Site");
+        _meter = create(_site, "Meter");
+        _other = create(_site, "Other");
+        _outside = create(root, "Outside");
+    }
+
+    @After
+    public void tearDown() {
+        _creator.disconnect();
+        _files.delete();
+    }
+
+    @Test
+    public void onlyListedAttributesAreWrittenAsReferences() throws Exception {
+        set(_meter, "Target", _other.getID());
+        set(_meter, "Value", _other.getID());
+        set(_other, "Target", _outside.getID());
+
+        String json = export(Collections.singleton("Target"));
+
+        assertTrue(json.contains("\"lastvalue\": \"$(REF)" + _other.getID() + "\""));
+        assertTrue(json.contains("\"lastvalue\": \"" + _other.getID() + "\""));
+        assertTrue(json.contains("\"lastvalue\": \"" + _outside.getID() + "\""));
+        assertTrue(json.contains("\"id\": " + _other.getID()));
+    }
+
+    @Test
+    public void noReferencesByDefault() throws Exception {
+        set(_meter, "Target", _other.getID());
+
+        String json = export(new HashSet<String>());
+
+        assertFalse(json.contains("$(REF)"));
+        assertFalse(json.contains("\"id\": " + _other.getID()));
+    }
+
+    private String export(Set<String> referenceAttributes) throws Exception {
+        File file = new File(_files.getDir(), "site.json");
+        _creator.exportJSONFile(_site.getID(), file.getPath(), referenceAttributes, false);
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static JEVisObject create(JEVisObject parent, String name) throws JEVisException {
+        JEVisObject object = parent.buildObject(name, parent.getJEVisClass());
+        object.commit();
+        return object;
+    }
+
+    private static void set(JEVisObject object, String attributeName, long value) throws JEVisException {
+        JEVisAttribute attribute = object.getAttribute(attributeName);
+        attribute.addSamples(Arrays.asList(attribute.buildSample(new DateTime(), String.valueOf(value))));
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.io.File;
+import java.util.Arrays;
+import org.jevis.api.JEVisAttribute;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisObject;
+import org.joda.time.DateTime;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StructureStateTest {
+
+    private static final String SITE = "{'id': 1, 'name': 'Root', 'jevisclass': 'Organization', 'children': ["
+            + "{'id': 0, 'name': 'Site', 'jevisclass': 'Organization', 'attributes': [{'name': 'Value', 'lastvalue': '%s'}]}]}";
+
+    private InMemoryDataSource _server;
+    private JSON2JEVisStructureCreator _creator;
+    private TestFiles _files;
+
+    @Before
+    public void setUp() throws Exception {
+        _server = new InMemoryDataSource("Root", Arrays.asList("Value"));
+        _creator = new JSON2JEVisStructureCreator();
+        assertTrue(_creator.connectToJEVis(_server));
+        _files = new TestFiles();
+    }
+
+    @After
+    public void tearDown() {
+        _creator.disconnect();
+        _files.delete();
+    }
+
+    @Test
+    public void noStateWithoutIncremental() throws Exception {
+        File json = _files.write("site.json", String.format(SITE, "a"));
+
+        _creator.processJSONFile(json.getPath());
+
+        assertFalse(new File(json.getPath() + StructureState.SUFFIX).exists());
+    }
+
+    @Test
+    public void unchangedSubtreeIsSkipped() throws Exception {
+        _creator.setIncremental(true);
+        File json = _files.write("site.json", String.format(SITE, "a"));
+        _creator.processJSONFile(json.getPath());
+        assertTrue(new File(json.getPath() + StructureState.SUFFIX).exists());
+        setValue("x");
+
+        _creator.processJSONFile(json.getPath());
+
+        assertEquals("x", value());
+    }
+
+    @Test
+    public void changedSubtreeIsProcessed() throws Exception {
+        _creator.setIncremental(true);
+        File json = _files.write("site.json", String.format(SITE, "a"));
+        _creator.processJSONFile(json.getPath());
+
+        _files.write("site.json", String.format(SITE, "bb"));
+        _creator.processJSONFile(json.getPath());
+
+        assertEquals("bb", value());
+    }
+
+    @Test
+    public void verifyProcessesUnchangedSubtrees() throws Exception {
+        _creator.setIncremental(true);
+        File json = _files.write("site.json", String.format(SITE, "a"));
+        _creator.processJSONFile(json.getPath());
+        setValue("x");
+
+        _creator.setVerify(true);
+        _creator.processJSONFile(json.getPath());
+
+        assertEquals("a", value());
+    }
+
+    private void setValue(String value) throws JEVisException {
+        JEVisObject site = TestFiles.find(_server.connect(), "Site");
+        JEVisAttribute attribute = site.getAttribute("Value");
+        attribute.addSamples(Arrays.asList(attribute.buildSample(new DateTime(), value)));
+    }
+
+    private Object value() throws JEVisException {
+        return TestFiles.latest(TestFiles.find(_server.connect(), "Site"), "Value");
+    }
+}
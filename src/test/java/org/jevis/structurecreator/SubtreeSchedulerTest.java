@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisObject;
+import org.jevis.commons.json.JsonObject;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+public class SubtreeSchedulerTest {
+
+    private final List<String> _events = Collections.synchronizedList(new ArrayList<String>());
+    private SubtreeScheduler _scheduler;
+
+    @After
+    public void tearDown() {
+        if (_scheduler != null) {
+            _scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Records the start and end of every node, nodes named "slow" take a
+     * while and nodes named "fail" throw
+     */
+    private final SubtreeScheduler.NodeProcessor _recorder = new SubtreeScheduler.NodeProcessor() {
+        @Override
+        public JEVisObject process(JsonObject node, JEVisObject parent) throws JEVisException {
+            String name = node.getName() + "#" + node.getId();
+            _events.add("start " + name);
+            if (node.getName().equals("fail")) {
+                throw new JEVisException("failed", 1);
+            }
+            if (node.getName().equals("slow")) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            _events.add("end " + name);
+            return null;
+        }
+    };
+
+    private static JsonObject node(String name, long id, JsonObject... children) {
+        JsonObject node = new JsonObject();
+        node.setId(id);
+        node.setName(name);
+        node.setJevisClass("Building");
+        node.setChildren(new ArrayList<JsonObject>(Arrays.asList(children)));
+        return node;
+    }
+
+    @Test
+    public void parentsAreProcessedBeforeTheirChildren() throws Exception {
+        _scheduler = new SubtreeScheduler(4, _recorder);
+
+        _scheduler.run(Arrays.asList(
+                node("A", 0, node("A1", 0), node("A2", 0, node("A21", 0))),
+                node("B", 0, node("B1", 0))), null);
+
+        assertEquals(12, _events.size());
+        assertTrue(_events.indexOf("end A#0") < _events.indexOf("start A1#0"));
+        assertTrue(_events.indexOf("end A#0") < _events.indexOf("start A2#0"));
+        assertTrue(_events.indexOf("end A2#0") < _events.indexOf("start A21#0"));
+        assertTrue(_events.indexOf("end B#0") < _events.indexOf("start B1#0"));
+    }
+
+    @Test
+    public void siblingsOfTheSameObjectRunInOrder() throws Exception {
+        _scheduler = new SubtreeScheduler(4, _recorder);
+
+        // e.g. a DELETE followed by a CREATE of the same object
+        _scheduler.run(Arrays.asList(node("slow", -3), node("other", 0), node("slow", 0)), null);
+
+        assertTrue(_events.indexOf("end slow#-3") < _events.indexOf("start slow#0"));
+    }
+
+    @Test
+    public void failuresAreRethrown() throws Exception {
+        _scheduler = new SubtreeScheduler(2, _recorder);
+
+        try {
+            _scheduler.run(Arrays.asList(node("A", 0), node("fail", 0)), null);
+            fail("Expected a JEVisException");
+        } catch (JEVisException ex) {
+            assertTrue(_events.contains("start fail#0"));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.jevis.api.JEVisAttribute;
+import org.jevis.api.JEVisDataSource;
+import org.jevis.api.JEVisException;
+import org.jevis.api.JEVisObject;
+
+/**
+ * Temporary files and lookups shared by the tests
+ */
+class TestFiles {
+
+    private final File _dir;
+
+    TestFiles() throws IOException {
+        this._dir = Files.createTempDirectory("structurecreator").toFile();
+    }
+
+    File getDir() {
+        return _dir;
+    }
+
+    /**
+     * Write a file, single quotes are replaced by double quotes so JSON can
+     * be written inline
+     */
+    File write(String name, String content) throws IOException {
+        File file = new File(_dir, name);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.replace('\'', '"').getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Delete the directory with all files
+     */
+    void delete() {
+        delete(_dir);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * @return the child with the given name or null
+     */
+    static JEVisObject child(JEVisObject parent, String name) throws JEVisException {
+        for (JEVisObject child : parent.getChildren()) {
+            if (child.getName().equals(name)) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the object at the path of names below the root or null
+     */
+    static JEVisObject find(JEVisDataSource ds, String... path) throws JEVisException {
+        JEVisObject object = ds.getObject(InMemoryDataSource.ROOT_ID);
+        for (String name : path) {
+            if (object == null) {
+                return null;
+            }
+            object = child(object, name);
+        }
+        return object;
+    }
+
+    /**
+     * @return the value of the latest sample of an attribute or null
+     */
+    static Object latest(JEVisObject object, String attributeName) throws JEVisException {
+        JEVisAttribute attribute = object.getAttribute(attributeName);
+        return attribute == null || attribute.getLatestSample() == null ? null : attribute.getLatestSample().getValue();
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.io.File;
+import java.util.Arrays;
+import org.jevis.api.JEVisAttribute;
+import org.jevis.api.JEVisConstants.PrimitiveType;
+import org.jevis.api.JEVisObject;
+import org.jevis.api.JEVisSample;
+import org.joda.time.DateTime;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class UnchangedAttributeTest {
+
+    private InMemoryDataSource _server;
+    private JSON2JEVisStructureCreator _creator;
+    private TestFiles _files;
+    private JEVisAttribute _attribute;
+
+    @Before
+    public void setUp() throws Exception {
+        _server = new InMemoryDataSource("Root", Arrays.asList("Value"));
+        _creator = new JSON2JEVisStructureCreator();
+        assertTrue(_creator.connectToJEVis(_server));
+        _files = new TestFiles();
+        _attribute = _server.connect().getObject(InMemoryDataSource.ROOT_ID).getAttribute("Value");
+    }
+
+    @After
+    public void tearDown() {
+        _creator.disconnect();
+        _files.delete();
+    }
+
+    @Test
+    public void valuesAreComparedByPrimitiveType() throws Exception {
+        assertTrue(JSON2JEVisStructureCreator.isUnchanged(PrimitiveType.BOOLEAN, sample("1"), true));
+        assertTrue(JSON2JEVisStructureCreator.isUnchanged(PrimitiveType.BOOLEAN, sample("true"), "1"));
+        assertFalse(JSON2JEVisStructureCreator.isUnchanged(PrimitiveType.BOOLEAN, sample("0"), true));
+        assertTrue(JSON2JEVisStructureCreator.isUnchanged(PrimitiveType.DOUBLE, sample("1.50"), "1.5"));
+        assertTrue(JSON2JEVisStructureCreator.isUnchanged(PrimitiveType.LONG, sample("7"), 7L));
+        assertFalse(JSON2JEVisStructureCreator.isUnchanged(PrimitiveType.STRING, sample("1.50"), "1.5"));
+        assertFalse(JSON2JEVisStructureCreator.isUnchanged(PrimitiveType.STRING, null, "a"));
+    }
+
+    @Test
+    public void reapplyingAFileWritesNothing() throws Exception {
+        File json = _files.write("site.json", "{'id': 1, 'name': 'Root', 'jevisclass': 'Organization', 'children': ["
+                + "{'id': 0, 'name': 'Site', 'jevisclass': 'Organization', 'attributes': [{'name': 'Value', 'lastvalue': 'a'}]}]}");
+
+        _creator.processJSONFile(json.getPath());
+        _creator.processJSONFile(json.getPath());
+
+        JEVisObject site = TestFiles.find(_server.connect(), "Site");
+        assertEquals(1, site.getAttribute("Value").getAllSamples().size());
+    }
+
+    private JEVisSample sample(String value) throws Exception {
+        return _attribute.buildSample(new DateTime(), value);
+    }
+}
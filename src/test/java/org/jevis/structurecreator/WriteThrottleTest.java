@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2026 OpenJEVis contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation in version 3.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This driver is part of the OpenJEVis project, further project information are
+ * published at <http://www.OpenJEVis.org/>.
+ */
+
+
+package org.jevis.structurecreator;
+
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class WriteThrottleTest {
+
+    @Test
+    public void largeSampleBatchesTakeMorePermits() {
+        WriteThrottle throttle = new WriteThrottle(100);
+        throttle.setSamplesPerPermit(500);
+
+        assertEquals(1, throttle.permitsForSamples(0));
+        assertEquals(1, throttle.permitsForSamples(500));
+        assertEquals(2, throttle.permitsForSamples(501));
+    }
+
+    @Test
+    public void writesWaitForTheRate() {
+        WriteThrottle throttle = new WriteThrottle(100);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < 11; i++) {
+            throttle.acquire(1);
+        }
+
+        // the first write is free, the other ten take 10 ms each
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(90));
+        assertTrue(throttle.getWaitMillis() > 0);
+        assertEquals(0, throttle.getQueueDepth());
+    }
+
+    @Test
+    public void slowWritesLowerTheRateDownToTheMinimum() {
+        WriteThrottle throttle = new WriteThrottle(100);
+        throttle.setInterval(0);
+        throttle.setTargetLatency(10);
+        throttle.setMinRate(30);
+
+        complete(throttle, 50);
+        assertEquals(50, throttle.getRate(), 0.001);
+        complete(throttle, 50);
+        complete(throttle, 50);
+
+        assertEquals(30, throttle.getRate(), 0.001);
+    }
+
+    @Test
+    public void fastWritesRaiseTheRateUpToTheMaximum() {
+        WriteThrottle throttle = new WriteThrottle(100);
+        throttle.setInterval(0);
+        throttle.setTargetLatency(10);
+        complete(throttle, 50);
+
+        complete(throttle, 1);
+        assertEquals(55, throttle.getRate(), 0.001);
+        for (int i = 0; i < 20; i++) {
+            complete(throttle, 1);
+        }
+
+        assertEquals(100, throttle.getRate(), 0.001);
+    }
+
+    /**
+     * Complete enough writes of the given latency to end an interval
+     */
+    private static void complete(WriteThrottle throttle, long millis) {
+        for (int i = 0; i < 5; i++) {
+            throttle.completed(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+}